@@ -0,0 +1,116 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Конкурентное подтверждение броней одной и той же вещи: {@code contenders} подряд идущих вызовов
+ * подтверждают одну бронь, успешен только первый, остальные получают ValidationException.
+ * Счётчики approved/conflicts показывают, сколько из операций были реальными подтверждениями.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingApprovalBenchmark {
+    private static final int POOL = 50_000;
+    private static final int CHUNK = 1_000;
+
+    @Param({"1", "4"})
+    public int contenders;
+
+    private final AtomicInteger cursor = new AtomicInteger();
+    private long[] bookingIds;
+    private long ownerId;
+
+    @Setup(Level.Iteration)
+    public void setUp(ShareItState shareIt) {
+        ItemRepository itemRepository = shareIt.context.getBean(ItemRepository.class);
+        UserRepository userRepository = shareIt.context.getBean(UserRepository.class);
+        BookingRepository bookingRepository = shareIt.context.getBean(BookingRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(
+                shareIt.context.getBean(PlatformTransactionManager.class));
+
+        Item item = transaction.execute(status -> {
+            Item hot = itemRepository.findById(1L).orElseThrow();
+            hot.getOwner().getId();
+            return hot;
+        });
+        ownerId = item.getOwner().getId();
+        User booker = userRepository.findAll().stream()
+                .filter(user -> !user.getId().equals(ownerId))
+                .findFirst()
+                .orElseThrow();
+
+        LocalDateTime start = LocalDateTime.now().plusYears(1L);
+        bookingIds = new long[POOL];
+        for (int from = 0; from < POOL; from += CHUNK) {
+            List<Booking> chunk = new ArrayList<>(CHUNK);
+            for (int i = from; i < Math.min(POOL, from + CHUNK); i++) {
+                chunk.add(new Booking(item, start.plusHours(i), start.plusHours(i).plusMinutes(30L), booker,
+                        BookingStatus.WAITING));
+            }
+            List<Booking> saved = transaction.execute(status -> bookingRepository.saveAll(chunk));
+            for (int i = 0; i < saved.size(); i++) {
+                bookingIds[from + i] = saved.get(i).getId();
+            }
+        }
+        cursor.set(0);
+    }
+
+    @Benchmark
+    public void approve(ShareItState shareIt, Outcome outcome) {
+        int next = cursor.getAndIncrement() / contenders;
+        long bookingId = bookingIds[next % POOL];
+        try {
+            shareIt.bookingService.update(ownerId, bookingId, true);
+            outcome.approved++;
+        } catch (ValidationException e) {
+            outcome.conflicts++;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long approved;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            approved = 0;
+            conflicts = 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Benchmark
+    public List<ItemDtoOut> findAll(ShareItState state) {
+        return state.itemService.findAll(state.randomUserId(), 0, 10);
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> search(ShareItState state) {
+        return state.itemService.search(state.randomUserId(), state.randomWord(), 0, 10);
+    }
+
+    @Benchmark
+    public ItemDtoOut findItemById(ShareItState state) {
+        return state.itemService.findItemById(state.randomUserId(), state.randomItemId());
+    }
+}
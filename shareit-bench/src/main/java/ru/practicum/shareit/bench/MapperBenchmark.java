@@ -0,0 +1,61 @@
+package ru.practicum.shareit.bench;
+
+import org.jeasy.random.EasyRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int SIZE = 1024;
+
+    private final Booking[] bookings = new Booking[SIZE];
+    private final Item[] items = new Item[SIZE];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        EasyRandom random = ShareItState.easyRandom(42L);
+        for (int i = 0; i < SIZE; i++) {
+            Item item = random.nextObject(Item.class);
+            item.setId((long) i);
+            items[i] = item;
+            Booking booking = random.nextObject(Booking.class);
+            booking.setId((long) i);
+            booking.setItem(item);
+            booking.setBooker(random.nextObject(User.class));
+            bookings[i] = booking;
+        }
+    }
+
+    @Benchmark
+    public BookingDtoOut bookingToBookingOut() {
+        return BookingMapper.toBookingOut(bookings[next++ & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    public ItemDtoOut itemToItemDtoOut() {
+        return ItemMapper.toItemDtoOut(items[next++ & (SIZE - 1)]);
+    }
+}
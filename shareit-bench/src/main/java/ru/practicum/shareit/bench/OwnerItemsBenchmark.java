@@ -0,0 +1,98 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Список вещей владельца с {@code ITEMS} вещами: загрузка управляемых сущностей в read-write
+ * транзакции (как было) против проекции ItemView в read-only транзакции. Разницу в памяти
+ * показывает профилировщик: -Djmh.args="OwnerItemsBenchmark -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerItemsBenchmark {
+    private static final int ITEMS = 1_000;
+    private static final int CHUNK = 1_000;
+
+    private ItemRepository itemRepository;
+    private ItemService itemService;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private PageRequest page;
+    private long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        itemRepository = shareIt.context.getBean(ItemRepository.class);
+        itemService = shareIt.itemService;
+        PlatformTransactionManager transactionManager = shareIt.context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        page = PageRequest.of(0, ITEMS);
+
+        User owner = shareIt.context.getBean(UserRepository.class)
+                .save(User.builder().name("owner").email("owner@bench.ru").build());
+        ownerId = owner.getId();
+        List<Item> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(Item.builder()
+                    .name(ShareItState.WORDS[i % ShareItState.WORDS.length] + " " + i)
+                    .description("вещь владельца " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+        for (int from = 0; from < ITEMS; from += CHUNK) {
+            List<Item> chunk = items.subList(from, Math.min(ITEMS, from + CHUNK));
+            readWrite.execute(status -> itemRepository.saveAll(chunk));
+        }
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> entities() {
+        return readWrite.execute(status -> itemRepository.findAllByOwnerId(ownerId, page).stream()
+                .map(ItemMapper::toItemDtoOut)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> projections() {
+        return readOnly.execute(status -> itemRepository.findViewsByOwnerId(ownerId, page).stream()
+                .map(ItemMapper::toItemDtoOut)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> findAll() {
+        return itemService.findAll(ownerId, 0, ITEMS);
+    }
+}
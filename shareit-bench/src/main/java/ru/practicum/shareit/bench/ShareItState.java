@@ -0,0 +1,172 @@
+package ru.practicum.shareit.bench;
+
+import org.jeasy.random.EasyRandom;
+import org.jeasy.random.EasyRandomParameters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.ItemBookingReadModel;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.index.ItemSearchIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.jeasy.random.FieldPredicates.inClass;
+import static org.jeasy.random.FieldPredicates.named;
+
+/**
+ * Контекст приложения на H2 в памяти, заполненный случайными данными. Объём задаётся параметром
+ * {@code scale} (число вещей): пользователей в 10 раз меньше, бронирований в 5 раз больше.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+    static final String[] WORDS = {"дрель", "пила", "молоток", "отвёртка", "лестница", "палатка",
+            "велосипед", "самокат", "проектор", "камера", "рюкзак", "гитара"};
+    private static final int CHUNK = 1_000;
+
+    @Param({"1000"})
+    public int scale;
+
+    @Param({"42"})
+    public long seed;
+
+    public ConfigurableApplicationContext context;
+    public ItemService itemService;
+    public BookingService bookingService;
+    public int users;
+    public int items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.orm.jpa=WARN",
+                        "--logging.level.org.springframework.transaction=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        seed();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+
+    public long randomItemId() {
+        return ThreadLocalRandom.current().nextLong(1, items + 1L);
+    }
+
+    public String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    static EasyRandom easyRandom(long seed) {
+        LocalDateTime now = LocalDateTime.now();
+        Random words = new Random(seed);
+        return new EasyRandom(new EasyRandomParameters()
+                .seed(seed)
+                .excludeField(named("id"))
+                .excludeField(named("owner").and(inClass(Item.class)))
+                .excludeField(named("request").and(inClass(Item.class)))
+                .excludeField(named("item").and(inClass(Booking.class)))
+                .excludeField(named("booker").and(inClass(Booking.class)))
+                .randomize(named("name").and(inClass(Item.class)), () -> words(words, 2))
+                .randomize(named("description").and(inClass(Item.class)), () -> words(words, 6))
+                .dateRange(now.minusDays(30L).toLocalDate(), now.plusDays(30L).toLocalDate()));
+    }
+
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        EasyRandom random = easyRandom(seed);
+
+        users = Math.max(10, scale / 10);
+        items = scale;
+        List<User> savedUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = random.nextObject(User.class);
+            user.setEmail("user" + i + "@bench.ru");
+            savedUsers.add(user);
+        }
+        savedUsers = userRepository.saveAll(savedUsers);
+
+        List<Item> savedItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Item item = random.nextObject(Item.class);
+            item.setOwner(savedUsers.get(i % users));
+            savedItems.add(item);
+        }
+        savedItems = saveInChunks(transaction, itemRepository, savedItems);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < scale * 5; i++) {
+            Booking booking = random.nextObject(Booking.class);
+            booking.setItem(savedItems.get(random.nextInt(items)));
+            booking.setBooker(savedUsers.get(random.nextInt(users)));
+            booking.setEnd(booking.getStart().plusHours(1L + random.nextInt(72)));
+            booking.setStatus(BookingStatus.values()[random.nextInt(BookingStatus.values().length)]);
+            bookings.add(booking);
+        }
+        saveInChunks(transaction, bookingRepository, bookings);
+
+        context.getBean(ItemSearchIndex.class).rebuild();
+        context.getBean(BookingIntervalIndex.class).rebuild();
+        context.getBean(ItemBookingReadModel.class).rebuild();
+    }
+
+    private static <T> List<T> saveInChunks(TransactionTemplate transaction,
+                                            JpaRepository<T, Long> repository,
+                                            List<T> entities) {
+        List<T> saved = new ArrayList<>(entities.size());
+        for (int from = 0; from < entities.size(); from += CHUNK) {
+            List<T> chunk = entities.subList(from, Math.min(entities.size(), from + CHUNK));
+            saved.addAll(transaction.execute(status -> repository.saveAll(chunk)));
+        }
+        return saved;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
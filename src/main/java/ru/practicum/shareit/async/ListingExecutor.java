@@ -0,0 +1,49 @@
+package ru.practicum.shareit.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.datasource.RequestUserHolder;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул для тяжёлых списочных запросов. Запросы выполняются вне потоков Tomcat; когда
+ * пул и очередь заполнены, задача отклоняется (TaskRejectedException) и клиент получает 503.
+ */
+@Component
+public class ListingExecutor implements MeterBinder, DisposableBean {
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    public ListingExecutor(@Value("${shareit.listing.executor.core-size:8}") int coreSize,
+                           @Value("${shareit.listing.executor.max-size:16}") int maxSize,
+                           @Value("${shareit.listing.executor.queue-capacity:100}") int queueCapacity) {
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("listing-");
+        executor.setTaskDecorator(RequestUserHolder::wrap);
+        executor.initialize();
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "listing", Collections.emptyList())
+                .bindTo(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.async;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Схлопывание одинаковых одновременных запросов: пока вычисление по ключу выполняется,
+ * остальные вызовы с тем же ключом ждут его результат, а не запускают своё. Результат не
+ * кэшируется - после завершения следующий вызов снова идёт в загрузчик. Доля схлопнутых
+ * вызовов - joined / (executed + joined) в метрике shareit.singleflight.calls.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+    public static final String CALLS = "shareit.singleflight.calls";
+
+    private final String name;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            joined.increment();
+            return await(running);
+        }
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(CALLS, executed, LongAdder::doubleValue)
+                .description("Вызовы, выполнившие загрузку")
+                .tags("name", name, "result", "executed")
+                .register(registry);
+        FunctionCounter.builder(CALLS, joined, LongAdder::doubleValue)
+                .description("Вызовы, дождавшиеся чужой загрузки")
+                .tags("name", name, "result", "joined")
+                .register(registry);
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+}
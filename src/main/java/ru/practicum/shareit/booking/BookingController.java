@@ -2,15 +2,30 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.async.ListingExecutor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.booking.service.BookingExportService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.ConditionalGet;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.exceptions.ValidationException;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
@@ -21,7 +36,12 @@ import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 @Validated
 
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_BATCH_SIZE = 1000;
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
+    private final ListingExecutor listingExecutor;
+    private final EntityVersions entityVersions;
 
     @PostMapping
     public BookingDtoOut create(@RequestHeader(USER_HEADER) Long userId,
@@ -30,6 +50,14 @@ public class BookingController {
         return bookingService.add(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(@RequestHeader(USER_HEADER) Long userId,
+                                                   @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                   List<BookingDto> bookingDtos) {
+        log.info("POST запрос на создание {} бронирований от пользователя c id: {} ", bookingDtos.size(), userId);
+        return bookingService.addAll(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDtoOut updateStatus(@RequestHeader(USER_HEADER) Long userId,
                                       @PathVariable("bookingId")
@@ -40,28 +68,66 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDtoOut findBookingById(@RequestHeader(USER_HEADER) Long userId,
-                                         @PathVariable("bookingId")
-                                         Long bookingId) {
+    public ResponseEntity<BookingDtoOut> findBookingById(@RequestHeader(USER_HEADER) Long userId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                         String ifNoneMatch,
+                                                         @PathVariable("bookingId")
+                                                         Long bookingId) {
         log.info("GET запрос на получение данных о  бронировании от пользователя с id: {}", userId);
-        return bookingService.findBookingByUserId(userId, bookingId);
+        return ConditionalGet.respond(ifNoneMatch, entityVersions.bookingTag(userId, bookingId),
+                () -> bookingService.findBookingByUserId(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingDtoOut> findAll(@RequestHeader(USER_HEADER) Long userId,
-                                       @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
-                                       @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                       @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
+    public CompletableFuture<ResponseEntity<List<BookingDtoOut>>> findAll(@RequestHeader(USER_HEADER) Long userId,
+                                                                          @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                                                                          @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                          @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                                                          @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("GET запрос на получение списка всех бронирований текущего пользователя с id: {} и статусом {}", userId, bookingState);
-        return bookingService.findAll(userId, bookingState, from, size);
+        return listingExecutor.supply(() -> {
+            if (cursor == null) {
+                return ResponseEntity.ok(bookingService.findAll(userId, bookingState, from, size));
+            }
+            return toResponse(bookingService.findAllByCursor(userId, bookingState, cursor, size));
+        });
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoOut> getAllOwner(@RequestHeader(USER_HEADER) Long ownerId,
-                                           @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
-                                           @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                           @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
+    public CompletableFuture<ResponseEntity<List<BookingDtoOut>>> getAllOwner(@RequestHeader(USER_HEADER) Long ownerId,
+                                                                              @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                                                                              @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                                                              @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("GET запрос на получение списка всех бронирований текущего владельца с id: {} и статусом {}", ownerId, bookingState);
-        return bookingService.findAllOwner(ownerId, bookingState, from, size);
+        return listingExecutor.supply(() -> {
+            if (cursor == null) {
+                return ResponseEntity.ok(bookingService.findAllOwner(ownerId, bookingState, from, size));
+            }
+            return toResponse(bookingService.findAllOwnerByCursor(ownerId, bookingState, cursor, size));
+        });
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwner(@RequestHeader(USER_HEADER) Long ownerId,
+                                                             @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.info("GET запрос на выгрузку бронирований владельца с id: {} в формате {}", ownerId, format);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+        if (exportFormat == null) {
+            throw new ValidationException("Неизвестный формат выгрузки: " + format);
+        }
+        bookingExportService.checkOwner(ownerId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings." + exportFormat.getExtension() + "\"")
+                .body(outputStream -> bookingExportService.exportOwner(ownerId, exportFormat, outputStream));
+    }
+
+    private ResponseEntity<List<BookingDtoOut>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
\ No newline at end of file
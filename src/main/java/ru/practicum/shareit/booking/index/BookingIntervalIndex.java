@@ -0,0 +1,203 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriod;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс занятости вещей: для каждой вещи хранит интервалы действующих (WAITING и APPROVED)
+ * бронирований, упорядоченные по дате начала. Интервалы полуоткрытые - [start, end).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    public static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        timelines.clear();
+        List<BookingPeriod> periods = bookingRepository.findAllPeriods(ACTIVE_STATUSES, LocalDateTime.now());
+        for (BookingPeriod period : periods) {
+            timeline(period.getItemId()).add(new Period(period.getId(), period.getStart(), period.getEnd(),
+                    period.getStatus()));
+        }
+        log.info("Индекс бронирований построен: {} интервалов для {} вещей", periods.size(), timelines.size());
+    }
+
+    public void reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Period period = new Period(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus());
+        if (!timeline(itemId).addIfFree(period)) {
+            throw new ValidationException("Вещь уже забронирована на указанные даты.");
+        }
+        onRollback(() -> release(itemId, booking.getId()));
+    }
+
+    public void update(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (ACTIVE_STATUSES.contains(booking.getStatus())) {
+            afterCommit(() -> timeline(itemId).setStatus(booking.getId(), booking.getStatus()));
+        } else {
+            afterCommit(() -> release(itemId, booking.getId()));
+        }
+    }
+
+    public void release(Long itemId, Long bookingId) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline != null) {
+            timeline.remove(bookingId);
+        }
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null || timeline.overlapping(from, to).isEmpty();
+    }
+
+    public List<BookingPeriodDto> findOverlapping(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
+        return timeline.overlapping(from, to).stream()
+                .map(period -> new BookingPeriodDto(period.id, period.start, period.end, period.status))
+                .collect(Collectors.toList());
+    }
+
+    private ItemTimeline timeline(Long itemId) {
+        return timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Period {
+        private static final Comparator<Period> ORDER = Comparator
+                .comparing((Period period) -> period.start)
+                .thenComparing(period -> period.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final Long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private BookingStatus status;
+
+        private Period(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+    }
+
+    /**
+     * Интервалы одной вещи. Любой интервал, пересекающийся с [from, to), начинается не раньше
+     * from - maxDuration, поэтому поиск сводится к просмотру поддиапазона дерева.
+     */
+    private static final class ItemTimeline {
+        private final TreeSet<Period> periods = new TreeSet<>(Period.ORDER);
+        private final Map<Long, Period> byId = new HashMap<>();
+        private Duration maxDuration = Duration.ZERO;
+
+        synchronized void add(Period period) {
+            periods.add(period);
+            if (period.id != null) {
+                byId.put(period.id, period);
+            }
+            Duration duration = Duration.between(period.start, period.end);
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+        }
+
+        synchronized boolean addIfFree(Period period) {
+            evictExpired(LocalDateTime.now());
+            if (!overlapping(period.start, period.end).isEmpty()) {
+                return false;
+            }
+            add(period);
+            return true;
+        }
+
+        synchronized void remove(Long id) {
+            Period period = byId.remove(id);
+            if (period != null) {
+                periods.remove(period);
+            }
+        }
+
+        synchronized void setStatus(Long id, BookingStatus status) {
+            Period period = byId.get(id);
+            if (period != null) {
+                period.status = status;
+            }
+        }
+
+        synchronized List<Period> overlapping(LocalDateTime from, LocalDateTime to) {
+            if (!from.isBefore(to)) {
+                return Collections.emptyList();
+            }
+            Period lower = new Period(null, from.minus(maxDuration), from, null);
+            Period upper = new Period(null, to, to, null);
+            return periods.subSet(lower, true, upper, false).stream()
+                    .filter(period -> period.end.isAfter(from))
+                    .collect(Collectors.toList());
+        }
+
+        private void evictExpired(LocalDateTime now) {
+            Iterator<Period> iterator = periods.iterator();
+            while (iterator.hasNext()) {
+                Period period = iterator.next();
+                if (period.start.isAfter(now)) {
+                    break;
+                }
+                if (!period.end.isAfter(now)) {
+                    iterator.remove();
+                    byId.remove(period.id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Последнее и ближайшее подтверждённые бронирования каждой вещи. Обновляется при подтверждении
+ * и отклонении бронирований и сдвигается по времени планировщиком.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingReadModel {
+    private final BookingRepository bookingRepository;
+    private final EntityVersions entityVersions;
+    private final Map<Long, ItemBookings> items = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        items.clear();
+        bookingRepository.findAllLastApproved(now)
+                .forEach(booking -> item(booking.getItem().getId()).last = BookingMapper.toBookingOut(booking));
+        bookingRepository.findAllByStatusAndStartAfter(BookingStatus.APPROVED, now)
+                .forEach(booking -> item(booking.getItem().getId()).upcoming.add(BookingMapper.toBookingOut(booking)));
+        log.info("Модель последних и ближайших бронирований построена для {} вещей", items.size());
+    }
+
+    public BookingDtoOut getLastBooking(ItemDtoOut item) {
+        ItemBookings bookings = items.get(item.getId());
+        if (bookings == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (bookings.roll(now)) {
+            entityVersions.itemBookingsChanged(item.getId());
+        }
+        return withItem(bookings.last(now), item);
+    }
+
+    public BookingDtoOut getNextBooking(ItemDtoOut item) {
+        ItemBookings bookings = items.get(item.getId());
+        if (bookings == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (bookings.roll(now)) {
+            entityVersions.itemBookingsChanged(item.getId());
+        }
+        return withItem(bookings.next(now), item);
+    }
+
+    public void update(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        BookingDtoOut bookingDtoOut = BookingMapper.toBookingOut(booking);
+        afterCommit(() -> {
+            if (booking.getStatus() == BookingStatus.APPROVED) {
+                item(itemId).approve(bookingDtoOut, LocalDateTime.now());
+            } else if (item(itemId).remove(bookingDtoOut.getId())) {
+                reloadLast(itemId);
+            }
+            entityVersions.itemBookingsChanged(itemId);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.read-model.roll-interval:60000}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        items.forEach((itemId, bookings) -> {
+            if (bookings.roll(now)) {
+                entityVersions.itemBookingsChanged(itemId);
+            }
+        });
+    }
+
+    private void reloadLast(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        BookingDtoOut last = bookingRepository.findLastApproved(itemId, now).stream()
+                .findFirst()
+                .map(BookingMapper::toBookingOut)
+                .orElse(null);
+        item(itemId).replaceLast(last, now);
+    }
+
+    private ItemBookings item(Long itemId) {
+        return items.computeIfAbsent(itemId, id -> new ItemBookings());
+    }
+
+    private BookingDtoOut withItem(BookingDtoOut booking, ItemDtoOut item) {
+        if (booking == null) {
+            return null;
+        }
+        ItemDtoOut bookedItem = new ItemDtoOut(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+        bookedItem.setRequestId(item.getRequestId());
+        return new BookingDtoOut(booking.getId(), bookedItem, booking.getStart(), booking.getEnd(),
+                booking.getBooker(), booking.getStatus());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class ItemBookings {
+        private BookingDtoOut last;
+        private final TreeSet<BookingDtoOut> upcoming = new TreeSet<>(Comparator
+                .comparing(BookingDtoOut::getStart)
+                .thenComparing(BookingDtoOut::getId));
+
+        synchronized BookingDtoOut last(LocalDateTime now) {
+            roll(now);
+            return last;
+        }
+
+        synchronized BookingDtoOut next(LocalDateTime now) {
+            roll(now);
+            return upcoming.isEmpty() ? null : upcoming.first();
+        }
+
+        synchronized void approve(BookingDtoOut booking, LocalDateTime now) {
+            remove(booking.getId());
+            if (booking.getStart().isAfter(now)) {
+                upcoming.add(booking);
+            } else if (last == null || !booking.getStart().isBefore(last.getStart())) {
+                last = booking;
+            }
+        }
+
+        synchronized boolean remove(Long bookingId) {
+            upcoming.removeIf(booking -> booking.getId().equals(bookingId));
+            if (last != null && last.getId().equals(bookingId)) {
+                last = null;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void replaceLast(BookingDtoOut booking, LocalDateTime now) {
+            if (last == null || (booking != null && booking.getStart().isAfter(last.getStart()))) {
+                last = booking;
+            }
+            roll(now);
+        }
+
+        synchronized boolean roll(LocalDateTime now) {
+            boolean rolled = false;
+            while (!upcoming.isEmpty() && !upcoming.first().getStart().isAfter(now)) {
+                last = upcoming.pollFirst();
+                rolled = true;
+            }
+            return rolled;
+        }
+    }
+}
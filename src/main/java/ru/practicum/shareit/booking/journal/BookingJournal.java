@@ -0,0 +1,251 @@
+package ru.practicum.shareit.booking.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Журнал переходов бронирований: после коммита каждое создание, подтверждение и отклонение
+ * брони дописывается в отображённый в память сегмент. Сегменты фиксированного размера,
+ * заполненный сегмент закрывается и начинается следующий. Аналитика читает журнал через
+ * BookingJournalReader, не обращаясь к базе.
+ * <p>
+ * Журнал открывается при первой записи и захватывает lock-файл каталога, так что писатель
+ * у каталога всегда один. Если открыть сегмент не удалось, lock отпускается и следующая запись
+ * пробует открыть журнал заново.
+ * <p>
+ * Запись идёт после коммита, поэтому её ошибка не откатывает бронь и не доходит до клиента:
+ * она логируется, считается в shareit.bookings.journal.failures и переводит индикатор здоровья
+ * bookingJournal в DOWN до первой успешной записи.
+ */
+@Slf4j
+@Component
+public class BookingJournal implements MeterBinder, HealthIndicator {
+    private static final String LOCK_FILE = "journal.lock";
+    private static final String FAILURES = "shareit.bookings.journal.failures";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentCapacity;
+    private final SyncPolicy syncPolicy;
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private JournalSegment segment;
+    private long nextSequence;
+    private boolean dirty;
+    private final LongAdder failures = new LongAdder();
+    private volatile String lastError;
+
+    public BookingJournal(@Value("${shareit.bookings.journal.enabled:true}") boolean enabled,
+                          @Value("${shareit.bookings.journal.dir:./db/journal}") Path directory,
+                          @Value("${shareit.bookings.journal.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${shareit.bookings.journal.sync:INTERVAL}") SyncPolicy syncPolicy) {
+        long capacity = segmentSize.toBytes() / BookingJournalRecord.SIZE;
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / BookingJournalRecord.SIZE) {
+            throw new IllegalArgumentException("Недопустимый размер сегмента журнала: " + segmentSize);
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentCapacity = (int) capacity;
+        this.syncPolicy = syncPolicy;
+    }
+
+    public enum SyncPolicy {
+        /**
+         * Сброс на диск оставлен операционной системе.
+         */
+        NEVER,
+        /**
+         * force() после каждой записи.
+         */
+        ALWAYS,
+        /**
+         * force() раз в shareit.bookings.journal.sync-interval, если были записи.
+         */
+        INTERVAL
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Записывает состояние брони на момент вызова после коммита транзакции: поля читаются сразу,
+     * чтобы изменения сущности до коммита не попали в чужую запись.
+     */
+    public void record(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        Long bookingId = booking.getId();
+        Long itemId = booking.getItem().getId();
+        Long bookerId = booking.getBooker().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        BookingStatus status = booking.getStatus();
+        afterCommit(() -> append(new BookingJournalRecord(0, Instant.now(), bookingId, itemId, bookerId,
+                start, end, status)));
+    }
+
+    public BookingJournalReader reader() {
+        return new BookingJournalReader(directory);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.journal.sync-interval:1000}")
+    public synchronized void sync() {
+        if (dirty && segment != null) {
+            segment.buffer.force();
+            dirty = false;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        sync();
+        segment = null;
+        releaseLock();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(FAILURES, failures, LongAdder::doubleValue)
+                .description("Переходы бронирований, не записанные в журнал")
+                .register(registry);
+    }
+
+    @Override
+    public Health health() {
+        String error = lastError;
+        Health.Builder health = error == null ? Health.up() : Health.down().withDetail("error", error);
+        return health.withDetail("enabled", enabled)
+                .withDetail("failures", failures.sum())
+                .build();
+    }
+
+    synchronized long append(BookingJournalRecord record) {
+        try {
+            if (segment == null) {
+                open();
+            }
+            if (!segment.contains(nextSequence)) {
+                roll();
+            }
+            long sequence = nextSequence++;
+            segment.write(new BookingJournalRecord(sequence, record.getRecordedAt(), record.getBookingId(),
+                    record.getItemId(), record.getBookerId(), record.getStart(), record.getEnd(),
+                    record.getStatus()));
+            if (syncPolicy == SyncPolicy.ALWAYS) {
+                segment.buffer.force();
+            } else {
+                dirty = syncPolicy == SyncPolicy.INTERVAL;
+            }
+            lastError = null;
+            return sequence;
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            lastError = e.toString();
+            log.error("Не удалось записать в журнал переход брони {} в статус {}",
+                    record.getBookingId(), record.getStatus(), e);
+            return 0;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Журнал " + directory + " уже открыт другим писателем");
+        }
+        lockChannel = channel;
+        try {
+            openLastSegment();
+        } catch (IOException | RuntimeException e) {
+            segment = null;
+            try {
+                releaseLock();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        log.info("Журнал бронирований {} открыт, следующая запись {}", directory, nextSequence);
+    }
+
+    private void openLastSegment() throws IOException {
+        Map.Entry<Long, Path> last = JournalSegment.list(directory).lastEntry();
+        if (last == null) {
+            nextSequence = 1;
+            segment = JournalSegment.create(directory, nextSequence, segmentCapacity);
+            return;
+        }
+        segment = JournalSegment.open(last.getValue(), true);
+        nextSequence = segment.firstSequence;
+        while (segment.read(nextSequence) != null) {
+            nextSequence++;
+        }
+    }
+
+    private void releaseLock() throws IOException {
+        if (lock == null) {
+            return;
+        }
+        try {
+            lock.release();
+        } finally {
+            lockChannel.close();
+            lock = null;
+            lockChannel = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        segment.buffer.force();
+        dirty = false;
+        segment = JournalSegment.create(directory, nextSequence, segmentCapacity);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
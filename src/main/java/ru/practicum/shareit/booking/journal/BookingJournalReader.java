@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Читатель журнала бронирований. Не зависит от Spring и базы: достаточно каталога
+ * с сегментами, поэтому может работать и в отдельном процессе. Для чтения хвоста
+ * потребитель запоминает номер последней обработанной записи и вызывает
+ * read(последний + 1, limit), пока не получит пустой список.
+ */
+public class BookingJournalReader {
+    private final Path directory;
+    private final NavigableMap<Long, JournalSegment> segments = new TreeMap<>();
+
+    public BookingJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Записи с номерами от fromSequence включительно, не больше limit. Если начало журнала
+     * уже удалено, чтение начинается с самой ранней сохранившейся записи.
+     */
+    public synchronized List<BookingJournalRecord> read(long fromSequence, int limit) {
+        List<BookingJournalRecord> records = new ArrayList<>(Math.min(limit, 1024));
+        long sequence = Math.max(fromSequence, 1);
+        JournalSegment segment = segment(sequence);
+        if (segment != null && sequence < segment.firstSequence) {
+            sequence = segment.firstSequence;
+        }
+        while (segment != null && records.size() < limit) {
+            BookingJournalRecord record = segment.read(sequence);
+            if (record == null) {
+                if (segment.contains(sequence)) {
+                    break;
+                }
+                segment = segment(sequence);
+                if (segment == null || !segment.contains(sequence)) {
+                    break;
+                }
+                continue;
+            }
+            records.add(record);
+            sequence++;
+        }
+        return records;
+    }
+
+    private JournalSegment segment(long sequence) {
+        Map.Entry<Long, JournalSegment> entry = segments.floorEntry(sequence);
+        if (entry == null || !entry.getValue().contains(sequence)) {
+            refresh();
+            entry = segments.floorEntry(sequence);
+            if (entry == null) {
+                entry = segments.firstEntry();
+            }
+        }
+        return entry == null ? null : entry.getValue();
+    }
+
+    private void refresh() {
+        try {
+            for (Map.Entry<Long, Path> file : JournalSegment.list(directory).entrySet()) {
+                if (!segments.containsKey(file.getKey())) {
+                    segments.put(file.getKey(), JournalSegment.open(file.getValue(), false));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать журнал " + directory, e);
+        }
+    }
+}
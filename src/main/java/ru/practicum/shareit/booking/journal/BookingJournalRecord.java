@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Запись журнала бронирований фиксированного размера SIZE байт:
+ * <pre>
+ *  0 sequence    long   (0 - слот ещё не записан)
+ *  8 recordedAt  long   epoch millis
+ * 16 bookingId   long
+ * 24 itemId      long
+ * 32 bookerId    long
+ * 40 start       long   epoch millis, UTC
+ * 48 end         long   epoch millis, UTC
+ * 56 status      int    BookingStatus.ordinal(), порядок констант - часть формата
+ * 60 checksum    int    CRC32 байтов 0..59
+ * </pre>
+ * sequence пишется последним, поэтому читатель не увидит запись, заполненную наполовину,
+ * а оборванную при сбое отсечёт по контрольной сумме.
+ */
+@Data
+@AllArgsConstructor
+public class BookingJournalRecord {
+    public static final int SIZE = 64;
+
+    private static final int CHECKSUM_OFFSET = 60;
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    private final long sequence;
+    private final Instant recordedAt;
+    private final Long bookingId;
+    private final Long itemId;
+    private final Long bookerId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BookingStatus status;
+
+    void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset + 8, recordedAt.toEpochMilli());
+        buffer.putLong(offset + 16, bookingId);
+        buffer.putLong(offset + 24, itemId);
+        buffer.putLong(offset + 32, bookerId);
+        buffer.putLong(offset + 40, toMillis(start));
+        buffer.putLong(offset + 48, toMillis(end));
+        buffer.putInt(offset + 56, status.ordinal());
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(buffer, offset, sequence));
+        buffer.putLong(offset, sequence);
+    }
+
+    /**
+     * @return запись из слота или null, если слот пуст или повреждён.
+     */
+    static BookingJournalRecord readFrom(ByteBuffer buffer, int offset) {
+        long sequence = buffer.getLong(offset);
+        if (sequence == 0 || buffer.getInt(offset + CHECKSUM_OFFSET) != checksum(buffer, offset, sequence)) {
+            return null;
+        }
+        int status = buffer.getInt(offset + 56);
+        if (status < 0 || status >= STATUSES.length) {
+            return null;
+        }
+        return new BookingJournalRecord(sequence,
+                Instant.ofEpochMilli(buffer.getLong(offset + 8)),
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                fromMillis(buffer.getLong(offset + 40)),
+                fromMillis(buffer.getLong(offset + 48)),
+                STATUSES[status]);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, long sequence) {
+        CRC32 crc = new CRC32();
+        ByteBuffer header = ByteBuffer.allocate(Long.BYTES).putLong(0, sequence);
+        crc.update(header);
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offset + CHECKSUM_OFFSET).position(offset + Long.BYTES);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
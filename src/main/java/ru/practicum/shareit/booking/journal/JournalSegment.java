@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Сегмент журнала - файл с предвыделенными слотами под записи. Имя файла - номер первой
+ * записи сегмента, поэтому слот записи с номером n находится по смещению
+ * (n - firstSequence) * BookingJournalRecord.SIZE.
+ */
+final class JournalSegment {
+    private static final String SUFFIX = ".journal";
+
+    final long firstSequence;
+    final MappedByteBuffer buffer;
+    final int capacity;
+
+    private JournalSegment(long firstSequence, MappedByteBuffer buffer) {
+        this.firstSequence = firstSequence;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity() / BookingJournalRecord.SIZE;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int capacity) throws IOException {
+        Path file = directory.resolve(fileName(firstSequence));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(firstSequence, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    (long) capacity * BookingJournalRecord.SIZE));
+        }
+    }
+
+    static JournalSegment open(Path file, boolean writable) throws IOException {
+        try (FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size() - channel.size() % BookingJournalRecord.SIZE;
+            return new JournalSegment(firstSequence(file), channel.map(writable
+                    ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Сегменты каталога по номеру первой записи.
+     */
+    static NavigableMap<Long, Path> list(Path directory) throws IOException {
+        NavigableMap<Long, Path> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(file -> segments.put(firstSequence(file), file));
+        }
+        return segments;
+    }
+
+    BookingJournalRecord read(long sequence) {
+        long slot = sequence - firstSequence;
+        if (slot < 0 || slot >= capacity) {
+            return null;
+        }
+        BookingJournalRecord record = BookingJournalRecord.readFrom(buffer, (int) slot * BookingJournalRecord.SIZE);
+        return record != null && record.getSequence() == sequence ? record : null;
+    }
+
+    void write(BookingJournalRecord record) {
+        record.writeTo(buffer, (int) (record.getSequence() - firstSequence) * BookingJournalRecord.SIZE);
+    }
+
+    boolean contains(long sequence) {
+        return sequence >= firstSequence && sequence < firstSequence + capacity;
+    }
+
+    private static String fileName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SUFFIX);
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление владельцу и арендатору. Доставка "хотя бы один раз": приёмник может получить
+ * одно и то же уведомление повторно и должен отбрасывать дубли по eventId.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingNotification {
+    private Long eventId;
+    private Long bookingId;
+    private Long itemId;
+    private Long ownerId;
+    private Long bookerId;
+    private BookingStatus status;
+    private LocalDateTime created;
+}
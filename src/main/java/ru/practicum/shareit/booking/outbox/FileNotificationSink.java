@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Локальный приёмник для разработки и тестов: дописывает уведомления в файл построчно
+ * в формате JSON и пишет их в лог. Другой приёмник подключается бином NotificationSink
+ * и shareit.bookings.outbox.sink с другим значением.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileNotificationSink implements NotificationSink {
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileNotificationSink(@Value("${shareit.bookings.outbox.file:./db/notifications.ndjson}") Path file,
+                                ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void send(List<BookingNotification> notifications) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (BookingNotification notification : notifications) {
+                writer.write(objectMapper.writeValueAsString(notification));
+                writer.write('\n');
+                log.info("Уведомление о брони {}: статус {}, владелец {}, арендатор {}", notification.getBookingId(),
+                        notification.getStatus(), notification.getOwnerId(), notification.getBookerId());
+            }
+        }
+    }
+}
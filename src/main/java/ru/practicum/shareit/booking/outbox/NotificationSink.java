@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.outbox;
+
+import java.util.List;
+
+/**
+ * Приёмник уведомлений. Метод возвращается только после того, как вся пачка принята;
+ * любое исключение означает, что пачка будет отправлена повторно.
+ */
+public interface NotificationSink {
+    void send(List<BookingNotification> notifications) throws Exception;
+}
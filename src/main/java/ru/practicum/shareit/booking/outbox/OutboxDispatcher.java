@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая отправка событий из outbox пачками в порядке записи. Пачка удаляется только после
+ * успешного send(), поэтому при падении между отправкой и удалением она уйдёт ещё раз -
+ * доставка "хотя бы один раз".
+ * <p>
+ * Если приёмник отказал, события пачки отправляются по одному до первого отказа: доставленные
+ * удаляются, у отказавшего увеличивается attempts, и отправка прекращается до следующего опроса,
+ * чтобы не нарушать порядок событий. Событие, исчерпавшее shareit.bookings.outbox.max-attempts
+ * попыток, остаётся в таблице как dead letter и больше не выбирается, поэтому одно "ядовитое"
+ * событие не блокирует очередь. Вернуть его в очередь можно, обнулив attempts.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    public static final String DISPATCHED = "shareit.outbox.dispatched";
+    public static final String FAILURES = "shareit.outbox.failures";
+    public static final String DELIVERY_LAG = "shareit.outbox.delivery.lag";
+    public static final String OLDEST_AGE = "shareit.outbox.oldest.age";
+    public static final String DEAD_LETTERS = "shareit.outbox.dead.letters";
+
+    private final OutboxRepository outboxRepository;
+    private final NotificationSink sink;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Counter deadLetters;
+    private final Timer deliveryLag;
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public OutboxDispatcher(OutboxRepository outboxRepository,
+                            NotificationSink sink,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.bookings.outbox.batch-size:100}") int batchSize,
+                            @Value("${shareit.bookings.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.dispatched = Counter.builder(DISPATCHED)
+                .description("Доставленные уведомления о бронированиях")
+                .register(meterRegistry);
+        this.failures = Counter.builder(FAILURES)
+                .description("Неудачные попытки отправить пачку уведомлений")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder(DEAD_LETTERS)
+                .description("События, исчерпавшие попытки доставки и оставленные в outbox")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder(DELIVERY_LAG)
+                .description("Время от записи события в outbox до его доставки")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        TimeGauge.builder(OLDEST_AGE, oldestAgeMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Возраст самого старого недоставленного события на момент последнего опроса")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.outbox.poll-interval:500}")
+    public void dispatch() {
+        int sent;
+        do {
+            sent = dispatchBatch();
+        } while (sent == batchSize);
+    }
+
+    /**
+     * @return сколько событий доставлено, 0 - если outbox пуст или приёмник отказал на первом событии.
+     */
+    int dispatchBatch() {
+        List<OutboxEvent> batch = outboxRepository.findPending(maxAttempts, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            oldestAgeMillis.set(0);
+            return 0;
+        }
+        oldestAgeMillis.set(Duration.between(batch.get(0).getCreated(), LocalDateTime.now()).toMillis());
+        if (send(batch)) {
+            delivered(batch);
+            return batch.size();
+        }
+        if (batch.size() == 1) {
+            failed(batch.get(0));
+            return 0;
+        }
+        int sent = 0;
+        for (OutboxEvent event : batch) {
+            if (!send(List.of(event))) {
+                failed(event);
+                break;
+            }
+            delivered(List.of(event));
+            sent++;
+        }
+        return sent;
+    }
+
+    private boolean send(List<OutboxEvent> events) {
+        try {
+            sink.send(events.stream()
+                    .map(OutboxMapper::toNotification)
+                    .collect(Collectors.toList()));
+            return true;
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Не удалось отправить {} уведомлений, начиная с события {}",
+                    events.size(), events.get(0).getId(), e);
+            return false;
+        }
+    }
+
+    private void delivered(List<OutboxEvent> events) {
+        outboxRepository.deleteAllByIdInBatch(events.stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList()));
+        LocalDateTime delivered = LocalDateTime.now();
+        dispatched.increment(events.size());
+        events.forEach(event -> deliveryLag.record(Duration.between(event.getCreated(), delivered)));
+    }
+
+    private void failed(OutboxEvent event) {
+        outboxRepository.incrementAttempts(List.of(event.getId()));
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            deadLetters.increment();
+            log.error("Событие {} о брони {} не доставлено за {} попыток и больше не отправляется",
+                    event.getId(), event.getBookingId(), maxAttempts);
+        }
+    }
+}
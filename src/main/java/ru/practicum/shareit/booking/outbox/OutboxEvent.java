@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Событие об изменении брони, записанное в той же транзакции, что и сама бронь.
+ * Строка удаляется из outbox только после того, как приёмник подтвердил доставку.
+ * Id берётся из последовательности с шагом 50, а не IDENTITY: иначе каждая запись выполняла бы
+ * INSERT сразу и ломала пакетную вставку в BookingServiceImpl.addAll.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "booking_outbox", schema = "public")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_outbox_seq")
+    @SequenceGenerator(name = "booking_outbox_seq", sequenceName = "booking_outbox_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private BookingStatus status;
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+@UtilityClass
+public class OutboxMapper {
+    public OutboxEvent toOutboxEvent(Booking booking) {
+        return OutboxEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .bookerId(booking.getBooker().getId())
+                .status(booking.getStatus())
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    public BookingNotification toNotification(OutboxEvent event) {
+        return new BookingNotification(
+                event.getId(),
+                event.getBookingId(),
+                event.getItemId(),
+                event.getOwnerId(),
+                event.getBookerId(),
+                event.getStatus(),
+                event.getCreated());
+    }
+}
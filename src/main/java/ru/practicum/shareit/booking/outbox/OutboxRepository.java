@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Недоставленные события в порядке записи, кроме исчерпавших maxAttempts попыток (dead letter).
+     */
+    @Query("select e from OutboxEvent as e where e.attempts < ?1 order by e.id")
+    List<OutboxEvent> findPending(int maxAttempts, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent as e set e.attempts = e.attempts + 1 where e.id in ?1")
+    int incrementAttempts(Collection<Long> ids);
+}
@@ -1,104 +1,251 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriod;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Меняет статус, только если бронь ещё WAITING и вещь принадлежит ownerId. Возвращает число
+     * изменённых строк: 0 означает, что бронь не найдена, чужая или уже подтверждена/отклонена.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking AS b " +
+            "SET b.status = ?3, b.version = b.version + 1 " +
+            "WHERE b.id = ?1 " +
+            "AND b.status = 'WAITING' " +
+            "AND EXISTS (SELECT i.id FROM Item AS i WHERE i.id = b.item.id AND i.owner.id = ?2)")
+    int updateStatusIfWaiting(Long bookingId, Long ownerId, BookingStatus status);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.id = ?1")
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllBookingsByBookerId(Long userId, Pageable pageable);
 
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND ?2 BETWEEN b.start_date AND b.end_date " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND ?2 BETWEEN b.start AND b.end " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllCurrentBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.end_date < ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.end < ?2 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllPastBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
 
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.start > ?2 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllFutureBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
             "AND b.status = 'WAITING' " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+            "AND b.start > ?2 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllWaitingBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
             "AND b.status = 'REJECTED' " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllRejectedBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id  " +
-            "WHERE i.owner_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllBookingsByOwnerId(Long ownerId, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND ?2 BETWEEN b.start_date AND b.end_date " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND ?2 BETWEEN b.start AND b.end " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllCurrentBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.end_date < ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND b.end < ?2 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllPastBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND b.start > ?2 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllFutureBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
             "AND b.status = 'WAITING' " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+            "AND b.start > ?2 " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllWaitingBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
             "AND b.status = 'REJECTED' " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findAllRejectedBookingsByOwnerId(Long ownerId, Pageable pageable);
 
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllBookingsByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND ?4 BETWEEN b.start AND b.end " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllCurrentBookingsByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.end < ?4 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllPastBookingsByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.start > ?4 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllFutureBookingsByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.status = 'WAITING' " +
+            "AND b.start > ?4 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllWaitingBookingsByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.status = 'REJECTED' " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllRejectedBookingsByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllBookingsByOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND ?4 BETWEEN b.start AND b.end " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllCurrentBookingsByOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND b.end < ?4 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllPastBookingsByOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND b.start > ?4 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllFutureBookingsByOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND b.status = 'WAITING' " +
+            "AND b.start > ?4 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllWaitingBookingsByOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId, LocalDateTime currentTime, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND b.status = 'REJECTED' " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllRejectedBookingsByOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
     @Query(value = "SELECT * FROM bookings as b " +
             "JOIN items as i ON i.id = b.item_id " +
             "WHERE b.item_id = ?1 " +
@@ -127,4 +274,40 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> findAllByItemAndStatusOrderByStartAsc(Item item, BookingStatus bookingStatus);
 
-}
\ No newline at end of file
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end, b.status AS status " +
+            "FROM Booking AS b " +
+            "WHERE b.status IN ?1 " +
+            "AND b.end > ?2")
+    List<BookingPeriod> findAllPeriods(Collection<BookingStatus> statuses, LocalDateTime endAfter);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByStatusAndStartAfter(BookingStatus status, LocalDateTime time);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.status = 'APPROVED' " +
+            "AND b.start = (SELECT MAX(l.start) FROM Booking AS l " +
+            "WHERE l.item = b.item AND l.status = 'APPROVED' AND l.start <= ?1)")
+    List<Booking> findAllLastApproved(LocalDateTime time);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.item.id = ?1 " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start <= ?2 " +
+            "ORDER BY b.start DESC")
+    List<Booking> findLastApproved(Long itemId, LocalDateTime time);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByOwnerId(Long ownerId);
+}
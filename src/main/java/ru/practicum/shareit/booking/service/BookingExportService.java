@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка бронирований владельца. Строки читаются одним курсором и пишутся в ответ
+ * по одной, контекст персистентности периодически очищается, поэтому расход памяти не зависит
+ * от числа бронирований.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingExportService {
+    static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName";
+    private static final int CLEAR_EVERY = BookingRepository.EXPORT_FETCH_SIZE;
+
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public void checkOwner(Long ownerId) {
+        userService.getUser(ownerId);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOwner(Long ownerId, BookingExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == BookingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(ownerId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookingDtoOut booking = BookingMapper.toBookingOut(iterator.next());
+                writer.write(format == BookingExportFormat.CSV ? toCsv(booking) : objectMapper.writeValueAsString(booking));
+                writer.write('\n');
+                if (++count % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Выгружено {} бронирований владельца с id: {} в формате {}", count, ownerId, format);
+    }
+
+    private String toCsv(BookingDtoOut booking) {
+        return String.join(",",
+                String.valueOf(booking.getId()),
+                String.valueOf(booking.getStart()),
+                String.valueOf(booking.getEnd()),
+                String.valueOf(booking.getStatus()),
+                String.valueOf(booking.getItem().getId()),
+                csvField(booking.getItem().getName()),
+                String.valueOf(booking.getBooker().getId()),
+                csvField(booking.getBooker().getName()));
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
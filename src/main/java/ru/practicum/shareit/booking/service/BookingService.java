@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 
 import java.util.List;
 
@@ -9,6 +11,8 @@ import java.util.List;
 public interface BookingService {
     BookingDtoOut add(Long userId, BookingDto bookingDto);
 
+    List<BookingBatchResultDto> addAll(Long userId, List<BookingDto> bookingDtos);
+
     BookingDtoOut update(Long userId, Long bookingId, Boolean approved);
 
     BookingDtoOut findBookingByUserId(Long userId, Long bookingId);
@@ -16,4 +20,8 @@ public interface BookingService {
     List<BookingDtoOut> findAll(Long userId, String state, Integer from, Integer size);
 
     List<BookingDtoOut> findAllOwner(Long userId, String state, Integer from, Integer size);
+
+    BookingPageDto findAllByCursor(Long userId, String state, String cursor, Integer size);
+
+    BookingPageDto findAllOwnerByCursor(Long userId, String state, String cursor, Integer size);
 }
\ No newline at end of file
@@ -1,17 +1,28 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.ItemBookingReadModel;
+import ru.practicum.shareit.booking.journal.BookingJournal;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.outbox.OutboxMapper;
+import ru.practicum.shareit.booking.outbox.OutboxRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -22,16 +33,28 @@ import ru.practicum.shareit.user.service.UserService;
 import lombok.extern.slf4j.Slf4j.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    public static final String LIST_TIMER = "shareit.bookings.list";
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingReadModel itemBookingReadModel;
+    private final MeterRegistry meterRegistry;
+    private final EntityVersions entityVersions;
+    private final BookingJournal bookingJournal;
+    private final OutboxRepository outboxRepository;
 
     @Override
     @Transactional
@@ -40,34 +63,74 @@ public class BookingServiceImpl implements BookingService {
         Item item = itemRepository.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена."));
         bookingValidation(bookingDto, user, item);
-        Booking booking = BookingMapper.toBooking(user, item, bookingDto);
-        return BookingMapper.toBookingOut(bookingRepository.save(booking));
+        if (!bookingIntervalIndex.isFree(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на указанные даты.");
+        }
+        Booking booking = bookingRepository.save(BookingMapper.toBooking(user, item, bookingDto));
+        bookingIntervalIndex.reserve(booking);
+        bookingJournal.record(booking);
+        outboxRepository.save(OutboxMapper.toOutboxEvent(booking));
+        return BookingMapper.toBookingOut(booking);
     }
 
     @Override
     @Transactional
-    public BookingDtoOut update(Long id, Long userId, Boolean approved) {
-        Booking bookingFromDb = validateBookingDetails(id, userId, Boolean.TRUE);
-
-        if (bookingFromDb.getItem().getOwner().getId().equals(userId)) {
-            throw new ValidationException("Внимание! Заявку на бронирование вещи может подтвердить только " +
-                    "владелец вещи!");
+    public List<BookingBatchResultDto> addAll(Long userId, List<BookingDto> bookingDtos) {
+        User user = UserMapper.toUser(userService.getUser(userId));
+        Map<Long, Item> items = itemRepository.findAllById(bookingDtos.stream()
+                        .map(BookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            try {
+                Item item = batchItem(bookingDto, items, now);
+                bookingValidation(bookingDto, user, item);
+                if (!bookingIntervalIndex.isFree(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+                    throw new ValidationException("Вещь уже забронирована на указанные даты.");
+                }
+                Booking booking = bookingRepository.save(BookingMapper.toBooking(user, item, bookingDto));
+                try {
+                    bookingIntervalIndex.reserve(booking);
+                } catch (ValidationException e) {
+                    // параллельный запрос занял даты после isFree: строка не должна закоммититься с пачкой
+                    bookingRepository.delete(booking);
+                    throw e;
+                }
+                bookingJournal.record(booking);
+                outboxRepository.save(OutboxMapper.toOutboxEvent(booking));
+                results.add(new BookingBatchResultDto(i, BookingMapper.toBookingOut(booking), null));
+            } catch (ValidationException | NotFoundException e) {
+                results.add(new BookingBatchResultDto(i, null, e.getMessage()));
+            }
         }
-        if ((approved) && (bookingFromDb.getStatus().equals(BookingStatus.REJECTED)) || bookingFromDb.getStatus().equals(BookingStatus.WAITING)) {
-            bookingFromDb.setStatus(BookingStatus.APPROVED);
-            return BookingMapper.toBookingOut(bookingRepository.save(bookingFromDb));
+        return results;
+    }
 
-        } else if ((!approved) && (bookingFromDb.getStatus().equals(BookingStatus.APPROVED) || bookingFromDb.getStatus().equals(BookingStatus.WAITING))) {
-            bookingFromDb.setStatus(BookingStatus.REJECTED);
-            return BookingMapper.toBookingOut(bookingRepository.save(bookingFromDb));
-        } else {
-            throw new ValidationException("Внимание! Нельзя изменить статус заявки на уже имеющийся!");
+    @Override
+    @Transactional
+    public BookingDtoOut update(Long userId, Long bookingId, Boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusIfWaiting(bookingId, userId, status) == 0) {
+            validateBookingDetails(userId, bookingId, Boolean.TRUE);
+            throw new ValidationException("Бронь не cо статусом WAITING");
         }
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронь не найдена."));
+        bookingIntervalIndex.update(booking);
+        itemBookingReadModel.update(booking);
+        entityVersions.bookingChanged(bookingId);
+        bookingJournal.record(booking);
+        outboxRepository.save(OutboxMapper.toOutboxEvent(booking));
+        return BookingMapper.toBookingOut(booking);
     }
 
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public BookingDtoOut findBookingByUserId(Long userId, Long bookingId) {
         Booking booking = validateBookingDetails(userId, bookingId, false);
         assert booking != null;
@@ -75,11 +138,16 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<BookingDtoOut> findAll(Long bookerId, String state, Integer from, Integer size) {
         Pageable pageable = PageRequest.of(from / size, size);
         userService.getUser(bookerId);
-        switch (validState(state)) {
+        BookingState bookingState = validState(state);
+        return listTimer("booker", bookingState).record(() -> findAllByBooker(bookerId, bookingState, pageable));
+    }
+
+    private List<BookingDtoOut> findAllByBooker(Long bookerId, BookingState state, Pageable pageable) {
+        switch (state) {
             case ALL:
                 return bookingRepository.findAllBookingsByBookerId(bookerId, pageable).stream()
                         .map(BookingMapper::toBookingOut)
@@ -114,11 +182,16 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<BookingDtoOut> findAllOwner(Long ownerId, String state, Integer from, Integer size) {
         Pageable pageable = PageRequest.of(from / size, size);
         userService.getUser(ownerId);
-        switch (validState(state)) {
+        BookingState bookingState = validState(state);
+        return listTimer("owner", bookingState).record(() -> findAllByOwner(ownerId, bookingState, pageable));
+    }
+
+    private List<BookingDtoOut> findAllByOwner(Long ownerId, BookingState state, Pageable pageable) {
+        switch (state) {
             case ALL:
                 return bookingRepository.findAllBookingsByOwnerId(ownerId, pageable).stream()
                         .map(BookingMapper::toBookingOut)
@@ -152,6 +225,96 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public BookingPageDto findAllByCursor(Long bookerId, String state, String cursor, Integer size) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(0, size);
+        userService.getUser(bookerId);
+        switch (validState(state)) {
+            case ALL:
+                return toPage(bookingRepository.findAllBookingsByBookerIdBefore(bookerId,
+                        after.getStart(), after.getId(), pageable), size);
+            case CURRENT:
+                return toPage(bookingRepository.findAllCurrentBookingsByBookerIdBefore(bookerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case PAST:
+                return toPage(bookingRepository.findAllPastBookingsByBookerIdBefore(bookerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case FUTURE:
+                return toPage(bookingRepository.findAllFutureBookingsByBookerIdBefore(bookerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case WAITING:
+                return toPage(bookingRepository.findAllWaitingBookingsByBookerIdBefore(bookerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case REJECTED:
+                return toPage(bookingRepository.findAllRejectedBookingsByBookerIdBefore(bookerId,
+                        after.getStart(), after.getId(), pageable), size);
+            default:
+                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingPageDto findAllOwnerByCursor(Long ownerId, String state, String cursor, Integer size) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(0, size);
+        userService.getUser(ownerId);
+        switch (validState(state)) {
+            case ALL:
+                return toPage(bookingRepository.findAllBookingsByOwnerIdBefore(ownerId,
+                        after.getStart(), after.getId(), pageable), size);
+            case CURRENT:
+                return toPage(bookingRepository.findAllCurrentBookingsByOwnerIdBefore(ownerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case PAST:
+                return toPage(bookingRepository.findAllPastBookingsByOwnerIdBefore(ownerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case FUTURE:
+                return toPage(bookingRepository.findAllFutureBookingsByOwnerIdBefore(ownerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case WAITING:
+                return toPage(bookingRepository.findAllWaitingBookingsByOwnerIdBefore(ownerId,
+                        after.getStart(), after.getId(), LocalDateTime.now(), pageable), size);
+            case REJECTED:
+                return toPage(bookingRepository.findAllRejectedBookingsByOwnerIdBefore(ownerId,
+                        after.getStart(), after.getId(), pageable), size);
+            default:
+                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private Timer listTimer(String role, BookingState state) {
+        return Timer.builder(LIST_TIMER)
+                .description("Время получения списка бронирований")
+                .tag("role", role)
+                .tag("state", state.name())
+                .register(meterRegistry);
+    }
+
+    private BookingPageDto toPage(List<Booking> bookings, Integer size) {
+        String nextCursor = bookings.size() < size ? null
+                : BookingCursor.of(bookings.get(bookings.size() - 1)).encode();
+        return new BookingPageDto(bookings.stream()
+                .map(BookingMapper::toBookingOut)
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    private Item batchItem(BookingDto bookingDto, Map<Long, Item> items, LocalDateTime now) {
+        if (bookingDto == null || bookingDto.getItemId() == null || bookingDto.getStart() == null
+                || bookingDto.getEnd() == null) {
+            throw new ValidationException("Не указаны вещь или даты бронирования.");
+        }
+        if (bookingDto.getStart().isBefore(now)) {
+            throw new ValidationException("Дата начала не может быть в прошлом.");
+        }
+        Item item = items.get(bookingDto.getItemId());
+        if (item == null) {
+            throw new NotFoundException("Вещь не найдена.");
+        }
+        return item;
+    }
 
     private void bookingValidation(BookingDto bookingDto, User user, Item item) {
         if (!item.getAvailable()) {
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.cache;
+
+/**
+ * Регионы кэша второго уровня Hibernate. Каждый регион должен быть описан в
+ * shareit.cache.regions.*: неописанный регион останавливает запуск (missing_cache_strategy=fail).
+ */
+public final class CacheRegions {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+    public static final String REQUEST_ITEMS = "request-items";
+
+    private CacheRegions() {
+    }
+}
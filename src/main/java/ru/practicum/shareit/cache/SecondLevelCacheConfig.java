@@ -0,0 +1,107 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.SharedCacheMode;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Локальный кэш второго уровня: JCache поверх Caffeine, по региону на сущность или коллекцию
+ * (см. CacheRegions) со своими max-size и ttl из shareit.cache.regions.*. Кэшируются только
+ * сущности с @Cacheable (ENABLE_SELECTIVE), все в режиме READ_WRITE. Каждый контекст
+ * получает собственный CacheManager, иначе контексты тестов делили бы закэшированные строки
+ * пересозданной схемы. Массовые update (ItemRepository.incrementCommentCount) Hibernate
+ * обрабатывает очисткой всего региона items и request-items.
+ */
+@Configuration
+@ConditionalOnProperty(value = "shareit.cache.enabled", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+    public static final String HIT_RATIO = "shareit.cache.hit.ratio";
+
+    private static final String REGIONS_PREFIX = "shareit.cache.regions";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClass().getClassLoader());
+        regions(environment).forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * Доля попаданий по каждому региону; абсолютные hit/miss/put публикует
+     * hibernate.second.level.cache.* из автоконфигурации Spring Boot.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(Environment environment, EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            regions(environment).keySet().forEach(name ->
+                    Gauge.builder(HIT_RATIO, statistics, stats -> hitRatio(stats.getCacheRegionStatistics(name)))
+                            .tag("region", name)
+                            .description("Доля попаданий в регион кэша второго уровня")
+                            .register(registry));
+        };
+    }
+
+    static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return Double.NaN;
+        }
+        long requests = region.getHitCount() + region.getMissCount();
+        return requests == 0 ? Double.NaN : (double) region.getHitCount() / requests;
+    }
+
+    private static Map<String, Region> regions(Environment environment) {
+        return Binder.get(environment)
+                .bind(REGIONS_PREFIX, Bindable.mapOf(String.class, Region.class))
+                .orElse(Map.of());
+    }
+
+    @Data
+    public static class Region {
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static ru.practicum.shareit.item.ItemController.USER_HEADER;
+
+/**
+ * Запоминает пользователя запроса для маршрутизации чтений. Запросы без X-Sharer-User-Id (в том числе
+ * все /users) читают только с основной базы: без пользователя нельзя отследить его недавние записи,
+ * и POST /users с последующим GET /users/{id} иначе попал бы на отстающую реплику.
+ */
+@Component
+public class RequestUserFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long userId = parse(request.getHeader(USER_HEADER));
+        RequestUserHolder.set(userId);
+        if (userId == null) {
+            RequestUserHolder.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestUserHolder.clear();
+        }
+    }
+
+    private Long parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+/**
+ * Пользователь текущего запроса (заголовок X-Sharer-User-Id). Нужен маршрутизатору источников данных,
+ * чтобы после записи читать данные этого пользователя с основной базы. Запросы без пользователя
+ * и ответы с ETag закрепляются за основной базой целиком (см. {@link #onPrimary}).
+ */
+@UtilityClass
+public class RequestUserHolder {
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    public Long get() {
+        return CURRENT.get();
+    }
+
+    public void set(Long userId) {
+        CURRENT.set(userId);
+    }
+
+    public void clear() {
+        CURRENT.remove();
+        PRIMARY.remove();
+    }
+
+    public boolean isPinnedToPrimary() {
+        return PRIMARY.get() != null;
+    }
+
+    public void pinToPrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * Выполняет чтение на основной базе, даже в read-only транзакции. Действует на транзакции,
+     * начатые внутри action: соединение уже начатой транзакции не меняется.
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        if (isPinnedToPrimary()) {
+            return action.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    /**
+     * Переносит пользователя текущего потока и закрепление за основной базой в задачу,
+     * выполняемую в другом потоке.
+     */
+    public Runnable wrap(Runnable task) {
+        Long userId = get();
+        boolean primary = isPinnedToPrimary();
+        return () -> {
+            Long previousUser = get();
+            boolean previousPrimary = isPinnedToPrimary();
+            set(userId);
+            setPinned(primary);
+            try {
+                task.run();
+            } finally {
+                if (previousUser == null) {
+                    CURRENT.remove();
+                } else {
+                    set(previousUser);
+                }
+                setPinned(previousPrimary);
+            }
+        };
+    }
+
+    private void setPinned(boolean primary) {
+        if (primary) {
+            PRIMARY.set(Boolean.TRUE);
+        } else {
+            PRIMARY.remove();
+        }
+    }
+}
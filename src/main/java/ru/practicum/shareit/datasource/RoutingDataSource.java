@@ -0,0 +1,78 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Отправляет read-only транзакции на реплику, остальное - на основную базу. Пользователь, который
+ * недавно писал, читает с основной базы (см. {@link ReadYourWritesTracker}), как и запросы,
+ * закреплённые за ней через {@link RequestUserHolder#onPrimary}.
+ * Должен оборачиваться в LazyConnectionDataSourceProxy: иначе соединение берётся до того,
+ * как транзакция помечена как read-only.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Boolean> REPLICA_TRANSACTION = new ThreadLocal<>();
+
+    private final ReadYourWritesTracker tracker;
+
+    public RoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * true, если текущая транзакция читает с реплики. Отсутствие строки в такой транзакции
+     * может означать лишь задержку репликации, поэтому его нельзя кэшировать.
+     */
+    public static boolean isReadingReplica() {
+        return REPLICA_TRANSACTION.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = RequestUserHolder.get();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (RequestUserHolder.isPinnedToPrimary() || tracker.wroteRecently(userId)) {
+                return Route.PRIMARY;
+            }
+            markReplicaTransaction();
+            return Route.REPLICA;
+        }
+        if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            tracker.markWrite(userId);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        tracker.markWrite(userId);
+                    }
+                });
+            }
+        }
+        return Route.PRIMARY;
+    }
+
+    private void markReplicaTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isReadingReplica()) {
+            return;
+        }
+        REPLICA_TRANSACTION.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                REPLICA_TRANSACTION.remove();
+            }
+        });
+    }
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
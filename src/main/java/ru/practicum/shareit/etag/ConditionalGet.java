@@ -0,0 +1,53 @@
+package ru.practicum.shareit.etag;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.datasource.RequestUserHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Ответ на GET с учётом If-None-Match: при совпадении ETag тело не строится и возвращается 304.
+ * ETag выставляется только на успешные ответы.
+ * <p>
+ * ETag берётся из счётчиков в памяти, которые меняются после коммита в основную базу, поэтому тело
+ * тоже читается с основной базы: отстающая реплика отдала бы под новым ETag старое тело.
+ * If-None-Match: * означает лишь существование ресурса, поэтому 304 на него отдаётся только
+ * после успешной загрузки - для несуществующего id сервис бросит исключение и ответ будет 404.
+ */
+@UtilityClass
+public class ConditionalGet {
+    private static final String ANY = "*";
+
+    public <T> ResponseEntity<T> respond(String ifNoneMatch, String etag, Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        T loaded = RequestUserHolder.onPrimary(body);
+        if (matches(ifNoneMatch, ANY)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(loaded);
+    }
+
+    boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
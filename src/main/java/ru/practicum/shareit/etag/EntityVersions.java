@@ -0,0 +1,111 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счётчики версий вещей, запросов и бронирований для сильных ETag. Версия сущности хранится в одном
+ * из SLOTS слотов по хэшу id и при изменении получает следующее значение общей последовательности,
+ * поэтому память ограничена, а коллизия слотов лишь меняет ETag соседней сущности.
+ * Счётчики увеличиваются после коммита, а ETag читается до построения ответа: ответ никогда
+ * не бывает старее своего ETag. Эпоха запуска не даёт совпасть ETag до и после перезапуска.
+ * <p>
+ * Имена пользователей и вещей попадают в ответы других сущностей (комментарии, бронирования),
+ * поэтому их изменение учитывается общими счётчиками users и items.
+ */
+@Component
+public class EntityVersions {
+    private static final int SLOTS = 1 << 16;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray items = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray requests = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray bookings = new AtomicLongArray(SLOTS);
+    private final AtomicLong anyItem = new AtomicLong();
+    private final AtomicLong anyUser = new AtomicLong();
+
+    public String itemTag(Long userId, Long itemId) {
+        return tag("i" + itemId + ".u" + userId, version(items, itemId), anyUser.get());
+    }
+
+    /**
+     * Версия общей для всех пользователей части ответа о вещи (сама вещь и отзывы). Загрузка, начатая
+     * после чтения этой версии, видит все изменения, учтённые в ней и в прочитанном раньше itemTag.
+     */
+    public String itemCardVersion(Long itemId) {
+        return itemId + "." + version(items, itemId) + "." + anyUser.get();
+    }
+
+    public String requestTag(Long userId, Long requestId) {
+        return tag("r" + requestId + ".u" + userId, version(requests, requestId));
+    }
+
+    public String bookingTag(Long userId, Long bookingId) {
+        return tag("b" + bookingId + ".u" + userId, version(bookings, bookingId), anyItem.get(), anyUser.get());
+    }
+
+    public void itemChanged(Long itemId) {
+        afterCommit(() -> {
+            touch(items, itemId);
+            anyItem.set(sequence.incrementAndGet());
+        });
+    }
+
+    /**
+     * Модель последних и ближайших бронирований уже изменилась (в том числе просто со временем),
+     * поэтому версия увеличивается сразу. Ответы о самих бронированиях это не затрагивает.
+     */
+    public void itemBookingsChanged(Long itemId) {
+        touch(items, itemId);
+    }
+
+    public void requestChanged(Long requestId) {
+        afterCommit(() -> touch(requests, requestId));
+    }
+
+    public void bookingChanged(Long bookingId) {
+        afterCommit(() -> touch(bookings, bookingId));
+    }
+
+    public void userChanged() {
+        afterCommit(() -> anyUser.set(sequence.incrementAndGet()));
+    }
+
+    private long version(AtomicLongArray slots, Long id) {
+        return slots.get(slot(id));
+    }
+
+    private void touch(AtomicLongArray slots, Long id) {
+        slots.set(slot(id), sequence.incrementAndGet());
+    }
+
+    private int slot(Long id) {
+        return Long.hashCode(id) & (SLOTS - 1);
+    }
+
+    private String tag(String resource, long... versions) {
+        StringBuilder tag = new StringBuilder("\"").append(resource).append('.').append(epoch);
+        for (long version : versions) {
+            tag.append('.').append(version);
+        }
+        return tag.append('"').toString();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
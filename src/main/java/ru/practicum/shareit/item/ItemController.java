@@ -2,17 +2,29 @@ package ru.practicum.shareit.item;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.async.ListingExecutor;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.etag.ConditionalGet;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.service.ItemService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -22,6 +34,8 @@ import java.util.List;
 public class ItemController {
     public static final String USER_HEADER = "X-Sharer-User-Id";
     private ItemService itemService;
+    private ListingExecutor listingExecutor;
+    private EntityVersions entityVersions;
 
     @PostMapping
     public ItemDtoOut add(@RequestHeader(USER_HEADER) Long userId,
@@ -39,29 +53,51 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDtoOut findById(@RequestHeader(USER_HEADER) Long userId,
-                               @PathVariable("itemId")
-                               Long itemId) {
+    public ResponseEntity<ItemDtoOut> findById(@RequestHeader(USER_HEADER) Long userId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch,
+                                               @PathVariable("itemId")
+                                               Long itemId) {
         log.info("GET Запрос на получение предмета с id = {} пользователем с id = {} ", itemId, userId);
-        return itemService.findItemById(userId, itemId);
+        return ConditionalGet.respond(ifNoneMatch, entityVersions.itemTag(userId, itemId),
+                () -> itemService.findItemById(userId, itemId));
     }
 
     @GetMapping
-    public List<ItemDtoOut> findAll(@RequestHeader(USER_HEADER) Long userId,
-                                    @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                    @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size
+    public CompletableFuture<List<ItemDtoOut>> findAll(@RequestHeader(USER_HEADER) Long userId,
+                                                       @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                       @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size
     ) {
         log.info("GET Запрос на получение предметов пользователя с id = {}", userId);
-        return itemService.findAll(userId, from, size);
+        return listingExecutor.supply(() -> itemService.findAll(userId, from, size));
     }
 
     @GetMapping("/search")
     public List<ItemDtoOut> searchItems(@RequestHeader(USER_HEADER) Long userId,
                                         @RequestParam(name = "text") String text,
                                         @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                        @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
-        log.info("GET Запрос на поиск предметов c текстом = {}", text);
-        return itemService.search(userId, text, from, size);
+                                        @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                        @RequestParam(name = "start", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                        @RequestParam(name = "end", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (start == null && end == null) {
+            log.info("GET Запрос на поиск предметов c текстом = {}", text);
+            return itemService.search(userId, text, from, size);
+        }
+        log.info("GET Запрос на поиск предметов c текстом = {}, свободных c {} по {}", text, start, end);
+        return itemService.searchAvailable(userId, text, start, end, from, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader(USER_HEADER) Long userId,
+                                               @PathVariable Long itemId,
+                                               @RequestParam(name = "from")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(name = "to")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("GET Запрос на проверку доступности предмета с id = {} c {} по {}", itemId, from, to);
+        return itemService.getAvailability(userId, itemId, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -71,4 +107,19 @@ public class ItemController {
         log.info("POST Запрос на создание комментария id = {}", itemId);
         return itemService.createComment(userId, commentDto, itemId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDtoOut>> findComments(@RequestHeader(USER_HEADER) Long userId,
+                                                            @PathVariable Long itemId,
+                                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                                            @RequestParam(value = "size", defaultValue = "10")
+                                                            @Min(1) @Max(100) Integer size) {
+        log.info("GET Запрос на получение отзывов о предмете с id = {} пользователем с id = {}", itemId, userId);
+        CommentPageDto page = itemService.findComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(BookingController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getComments());
+    }
 }
\ No newline at end of file
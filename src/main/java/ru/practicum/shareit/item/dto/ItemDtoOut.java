@@ -21,6 +21,7 @@ public class ItemDtoOut {
     private List<CommentDtoOut> comments;
     private BookingDtoOut nextBooking;
     private Long requestId;
+    private Integer commentCount;
 
 
     public ItemDtoOut(Long id, String name, String description, Boolean available) {
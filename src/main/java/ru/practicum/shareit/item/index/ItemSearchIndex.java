@@ -0,0 +1,215 @@
+package ru.practicum.shareit.item.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Триграммный индекс доступных вещей. Поиск повторяет семантику ItemRepository.search:
+ * подстрока без учёта регистра в названии или описании, результаты упорядочены по id.
+ * Кроме того, индекс помнит id всех вещей, включая недоступные, чтобы проверять существование
+ * вещи без запроса к базе. Вещи не удаляются, поэтому множество id только растёт.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final NavigableMap<Long, IndexedItem> items = new TreeMap<>();
+    private final Set<Long> itemIds = new HashSet<>();
+    private final Map<String, Set<Long>> grams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.index.enabled:true}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> ids = itemRepository.findAllIds();
+        List<Item> available = itemRepository.findAllByAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            grams.clear();
+            itemIds.clear();
+            itemIds.addAll(ids);
+            available.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей построен: {} вещей, {} триграмм", items.size(), grams.size());
+    }
+
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        IndexedItem indexed = new IndexedItem(ItemMapper.toItemDtoOut(item));
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                itemIds.add(indexed.item.getId());
+                remove(indexed.item.getId());
+                if (available) {
+                    put(indexed);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * true, если вещь с таким id закоммичена, в том числе недоступная для бронирования.
+     */
+    public boolean contains(Long itemId) {
+        lock.readLock().lock();
+        try {
+            return itemIds.contains(itemId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ItemDtoOut> search(String text, Integer from, Integer size) {
+        return search(text, from, size, itemId -> true);
+    }
+
+    /**
+     * Поиск с дополнительным условием на id вещи. Условие проверяется до пагинации, поэтому
+     * страницы складываются только из подходящих вещей.
+     */
+    public List<ItemDtoOut> search(String text, Integer from, Integer size, LongPredicate filter) {
+        String query = text.toLowerCase(Locale.ROOT);
+        long offset = (long) (from / size) * size;
+        lock.readLock().lock();
+        try {
+            return candidates(query).stream()
+                    .map(items::get)
+                    .filter(indexed -> indexed.matches(query) && filter.test(indexed.item.getId()))
+                    .skip(offset)
+                    .limit(size)
+                    .map(IndexedItem::toDto)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return items.keySet();
+        }
+        Set<Long> smallest = null;
+        for (String gram : grams(query)) {
+            Set<Long> posting = grams.get(gram);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return new TreeSet<>(smallest);
+    }
+
+    private void put(Item item) {
+        put(new IndexedItem(ItemMapper.toItemDtoOut(item)));
+    }
+
+    private void put(IndexedItem indexed) {
+        Long id = indexed.item.getId();
+        itemIds.add(id);
+        items.put(id, indexed);
+        indexed.grams().forEach(gram -> grams.computeIfAbsent(gram, key -> new HashSet<>()).add(id));
+    }
+
+    private void remove(Long id) {
+        IndexedItem indexed = items.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        for (String gram : indexed.grams()) {
+            Set<Long> posting = grams.get(gram);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            result.add(value.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class IndexedItem {
+        private final ItemDtoOut item;
+        private final String name;
+        private final String description;
+
+        private IndexedItem(ItemDtoOut item) {
+            this.item = item;
+            this.name = item.getName().toLowerCase(Locale.ROOT);
+            this.description = item.getDescription().toLowerCase(Locale.ROOT);
+        }
+
+        private boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        private Set<String> grams() {
+            Set<String> result = ItemSearchIndex.grams(name);
+            result.addAll(ItemSearchIndex.grams(description));
+            return result;
+        }
+
+        private ItemDtoOut toDto() {
+            ItemDtoOut dto = new ItemDtoOut(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+            dto.setRequestId(item.getRequestId());
+            return dto;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import ru.practicum.shareit.item.dto.CommentDtoOut;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 
 import java.util.List;
 
@@ -37,6 +38,16 @@ public class ItemMapper {
         return itemDtoOut;
     }
 
+    public ItemDtoOut toItemDtoOut(ItemView item) {
+        ItemDtoOut itemDtoOut = new ItemDtoOut(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable());
+        itemDtoOut.setRequestId(item.getRequestId());
+        return itemDtoOut;
+    }
+
     public ItemDtoOut toItemDtoOut(Item item, BookingDtoOut lastBooking, List<CommentDtoOut> comments, BookingDtoOut nextBooking) {
         return new ItemDtoOut(
                 item.getId(),
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.cache.CacheRegions;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
@@ -11,6 +14,8 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ITEMS)
 @Table(name = "items")
 public class Item {
     @Id
@@ -22,16 +27,22 @@ public class Item {
     private String description;
     @Column(name = "available", nullable = false)
     private Boolean available;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private User owner;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private ItemRequest request;
+    /**
+     * Меняется только запросом ItemRepository.incrementCommentCount: при сохранении изменённой вещи
+     * колонка не пишется, иначе загруженное ранее значение затёрло бы параллельное увеличение.
+     */
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private int commentCount;
 
     public Item(String name, String description, Boolean available) {
         this.name = name;
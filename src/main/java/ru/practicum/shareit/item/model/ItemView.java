@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Проекция вещи для чтения: только столбцы, нужные ItemDtoOut, без загрузки владельца и запроса.
+ * Заполняется конструктором прямо из JPQL (select new ...), поэтому не попадает в контекст
+ * персистентности и не требует прокси, как интерфейсная проекция.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemView {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Boolean available;
+    private final Long ownerId;
+    private final Long requestId;
+    private final int commentCount;
+}
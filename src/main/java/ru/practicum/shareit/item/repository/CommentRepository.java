@@ -1,12 +1,32 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("select c from Comment as c where c.item.id = ?1")
     List<Comment> findAllByItemId(Long itemId);
 
+    @Query("select c from Comment as c where c.item.id in ?1")
     List<Comment> findAllByItemIdIn(List<Long> itemIds);
-}
\ No newline at end of file
+
+    @Query("select c from Comment as c join fetch c.author " +
+            "where c.item.id = ?1 and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findAllByItemIdBefore(Long itemId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query(value = "select latest.id from (" +
+            "select c.id, row_number() over (partition by c.item_id order by c.created desc, c.id desc) as rn " +
+            "from comments as c where c.item_id in ?1) as latest " +
+            "where latest.rn <= ?2", nativeQuery = true)
+    List<Long> findLatestIdsByItemIdIn(Collection<Long> itemIds, int limit);
+
+    @Query("select c from Comment as c join fetch c.author where c.id in ?1 order by c.created desc, c.id desc")
+    List<Comment> findAllWithAuthorByIdIn(Collection<Long> ids);
+}
@@ -3,13 +3,20 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String VIEW = "select new ru.practicum.shareit.item.model.ItemView(i.id, i.name, i.description, i.available, " +
+            "i.owner.id, i.request.id, i.commentCount) from Item as i ";
+
     @Query("select i " +
             "from Item as i " +
             "where i.available = true and " +
@@ -17,7 +24,31 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "lower(i.description) like lower(concat('%', ?1, '%') ))")
     List<Item> search(String text, Pageable pageable);
 
+    @Query("select i from Item as i where i.owner.id = ?1")
     List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
 
+    @Query(VIEW + "where i.owner.id = ?1")
+    List<ItemView> findViewsByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query(VIEW + "where i.id = ?1")
+    Optional<ItemView> findViewById(Long id);
+
+    @Query(VIEW + "where i.available = true and " +
+            "(lower(i.name) like lower(concat('%', ?1, '%') ) or " +
+            "lower(i.description) like lower(concat('%', ?1, '%') ))")
+    List<ItemView> searchViews(String text, Pageable pageable);
+
     Page<Item> findAllByOwnerIdOrderByIdAsc(Long ownerId, Pageable pageable);
+
+    List<Item> findAllByAvailableTrue();
+
+    @Query("select i.id from Item as i")
+    List<Long> findAllIds();
+
+    @Query("select i from Item as i where i.request.id in ?1")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item as i set i.commentCount = i.commentCount + 1 where i.id = ?1")
+    int incrementCommentCount(Long itemId);
 }
\ No newline at end of file
@@ -2,12 +2,20 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
+    /**
+     * Сколько последних отзывов встраивается в карточку вещи, остальные доступны через
+     * GET /items/{itemId}/comments.
+     */
+    int LATEST_COMMENTS = 10;
 
     ItemDtoOut add(Long userId, ItemDto itemDto);
 
@@ -19,5 +27,12 @@ public interface ItemService {
 
     List<ItemDtoOut> search(Long userId, String text, Integer from, Integer size);
 
+    List<ItemDtoOut> searchAvailable(Long userId, String text, LocalDateTime start, LocalDateTime end,
+                                     Integer from, Integer size);
+
     CommentDtoOut createComment(Long userId, CommentDto commentDto, Long itemId);
+
+    CommentPageDto findComments(Long itemId, String cursor, Integer size);
+
+    ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
@@ -1,26 +1,35 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.async.SingleFlight;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.ItemBookingReadModel;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.index.ItemSearchIndex;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -29,11 +38,13 @@ import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.groupingBy;
@@ -51,6 +62,17 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final UserServiceImpl userService;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingReadModel itemBookingReadModel;
+    private final EntityVersions entityVersions;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight<String, Optional<ItemCard>> itemReads = new SingleFlight<>("item");
+
+    @PostConstruct
+    public void bindMetrics() {
+        itemReads.bindTo(meterRegistry);
+    }
 
     @Override
     @Transactional
@@ -61,7 +83,13 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getRequestId() != null) {
             item.setRequest(itemRequestRepository.getReferenceById(itemDto.getRequestId()));
         }
-        return ItemMapper.toItemDtoOut(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        entityVersions.itemChanged(savedItem.getId());
+        if (itemDto.getRequestId() != null) {
+            entityVersions.requestChanged(itemDto.getRequestId());
+        }
+        return ItemMapper.toItemDtoOut(savedItem);
     }
 
 
@@ -88,81 +116,118 @@ public class ItemServiceImpl implements ItemService {
         if (name != null && !name.isBlank()) {
             item.setName(name);
         }
+        itemSearchIndex.index(item);
+        entityVersions.itemChanged(itemId);
+        if (item.getRequest() != null) {
+            entityVersions.requestChanged(item.getRequest().getId());
+        }
         return ItemMapper.toItemDtoOut(item);
     }
 
 
+    /**
+     * Одновременные запросы одной вещи разделяют одну загрузку из базы. Ключ SingleFlight - id вещи
+     * вместе с её версией, прочитанной до загрузки: вызов не присоединится к загрузке, начатой до
+     * закоммиченного изменения, и не отдаст старое тело под ETag, посчитанным контроллером после него.
+     * Общая часть - вещь и последние отзывы - от роли не зависит; бронирования для владельца
+     * берутся из ItemBookingReadModel уже для каждого вызова отдельно.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ItemDtoOut findItemById(Long userId, Long itemId) {
-        //  userService.getUser(userId);
-        Item itemGet = itemRepository.findById(itemId)
+        ItemCard card = itemReads.execute(entityVersions.itemCardVersion(itemId), () -> loadItemCard(itemId))
                 .orElseThrow(() -> new NotFoundException("У пользователя с id = " + userId + " не " +
                         "существует вещи с id = " + itemId));
 
-        ItemDtoOut itemDtoOut = ItemMapper.toItemDtoOut(itemGet);
-        itemDtoOut.setComments(getAllItemComments(itemId));
-        if (!itemGet.getOwner().getId().equals(userId)) {
+        ItemDtoOut itemDtoOut = card.toDto();
+        if (!card.ownerId.equals(userId)) {
             return itemDtoOut;
         }
-        List<Booking> bookings = bookingRepository.findAllByItemAndStatusOrderByStartAsc(itemGet, BookingStatus.APPROVED);
-        List<BookingDtoOut> bookingDTOList = bookings
-                .stream()
-                .map(BookingMapper::toBookingOut)
-                .collect(toList());
-
-        itemDtoOut.setLastBooking(getLastBooking(bookingDTOList, LocalDateTime.now()));
-        itemDtoOut.setNextBooking(getNextBooking(bookingDTOList, LocalDateTime.now()));
+        itemDtoOut.setLastBooking(itemBookingReadModel.getLastBooking(itemDtoOut));
+        itemDtoOut.setNextBooking(itemBookingReadModel.getNextBooking(itemDtoOut));
         return itemDtoOut;
     }
 
+    private Optional<ItemCard> loadItemCard(Long itemId) {
+        return itemRepository.findViewById(itemId)
+                .map(item -> new ItemCard(ItemMapper.toItemDtoOut(item), item.getOwnerId(),
+                        List.copyOf(getLatestItemComments(itemId)), item.getCommentCount()));
+    }
+
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ItemDtoOut> findAll(Long userId, Integer from, Integer size) {
         Optional<UserDto> owner = Optional.ofNullable(userService.getUser(userId));
         Pageable pageable = PageRequest.of(from / size, size);
-        List<Item> itemList = itemRepository.findAllByOwnerId(userId, pageable);
+        List<ItemView> itemList = itemRepository.findViewsByOwnerId(userId, pageable);
         List<Long> idList = itemList.stream()
-                .map(Item::getId)
+                .map(ItemView::getId)
                 .collect(Collectors.toList());
-        Map<Long, List<CommentDtoOut>> comments = commentRepository.findAllByItemIdIn(idList)
+        Map<Long, List<CommentDtoOut>> comments = getLatestComments(idList)
                 .stream()
                 .map(CommentMapper::toCommentDtoOut)
                 .collect(groupingBy(CommentDtoOut::getItemId, toList()));
 
-        Map<Long, List<BookingDtoOut>> bookings = bookingRepository.findAllByItemInAndStatusOrderByStartAsc(itemList,
-                        BookingStatus.APPROVED)
-                .stream()
-                .map(BookingMapper::toBookingOut)
-                .collect(groupingBy(BookingDtoOut::getItemId, toList()));
-
         return itemList
                 .stream()
-                .map(item -> ItemMapper.toItemDtoOut(
-                        item,
-                        getLastBooking(bookings.get(item.getId()), LocalDateTime.now()),
-                        comments.get(item.getId()),
-                        getNextBooking(bookings.get(item.getId()), LocalDateTime.now())
-                ))
+                .map(item -> {
+                    ItemDtoOut itemDtoOut = ItemMapper.toItemDtoOut(item);
+                    itemDtoOut.setLastBooking(itemBookingReadModel.getLastBooking(itemDtoOut));
+                    itemDtoOut.setComments(comments.get(item.getId()));
+                    itemDtoOut.setNextBooking(itemBookingReadModel.getNextBooking(itemDtoOut));
+                    itemDtoOut.setCommentCount(item.getCommentCount());
+                    return itemDtoOut;
+                })
                 .collect(toList());
     }
 
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ItemDtoOut> search(Long userId, String text, Integer from, Integer size) {
         userService.getUser(userId);
         Pageable pageable = PageRequest.of(from / size, size);
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        List<Item> itemList = itemRepository.search(text, pageable);
+        if (itemSearchIndex.isEnabled()) {
+            return itemSearchIndex.search(text, from, size);
+        }
+        List<ItemView> itemList = itemRepository.searchViews(text, pageable);
         return itemList.stream()
                 .map(ItemMapper::toItemDtoOut)
                 .collect(toList());
     }
 
+    /**
+     * Поиск вещей, свободных на [start, end). Занятость проверяется по BookingIntervalIndex -
+     * тому же индексу, что отклоняет пересекающиеся бронирования, поэтому в выдачу попадают
+     * только вещи, которые действительно можно забронировать на эти даты.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDtoOut> searchAvailable(Long userId, String text, LocalDateTime start, LocalDateTime end,
+                                            Integer from, Integer size) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new ValidationException("Дата окончания не может быть раньше или равна дате начала");
+        }
+        userService.getUser(userId);
+        if (text.isBlank()) {
+            return Collections.emptyList();
+        }
+        LongPredicate free = itemId -> bookingIntervalIndex.isFree(itemId, start, end);
+        if (itemSearchIndex.isEnabled()) {
+            return itemSearchIndex.search(text, from, size, free);
+        }
+        return itemRepository.searchViews(text, Pageable.unpaged()).stream()
+                .filter(item -> free.test(item.getId()))
+                .skip((long) (from / size) * size)
+                .limit(size)
+                .map(ItemMapper::toItemDtoOut)
+                .collect(toList());
+    }
+
     @Override
     @Transactional
     public CommentDtoOut createComment(Long userId, CommentDto commentDto, Long itemId) {
@@ -179,38 +244,97 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("У пользователя с id   " + userId + " должно быть хотя бы одно бронирование предмета с id " + itemId);
         }
 
-        return CommentMapper.toCommentDtoOut(commentRepository.save(CommentMapper.toComment(commentDto, itemById, user)));
+        Comment comment = commentRepository.save(CommentMapper.toComment(commentDto, itemById, user));
+        itemRepository.incrementCommentCount(itemId);
+        entityVersions.itemChanged(itemId);
+        return CommentMapper.toCommentDtoOut(comment);
     }
 
-    public List<CommentDtoOut> getAllItemComments(Long itemId) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-
-        return comments.stream()
+    @Override
+    @Transactional(readOnly = true)
+    public CommentPageDto findComments(Long itemId, String cursor, Integer size) {
+        CommentCursor after = CommentCursor.decode(cursor);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещи с " + itemId + " не существует");
+        }
+        List<Comment> comments = commentRepository.findAllByItemIdBefore(itemId,
+                after.getCreated(), after.getId(), PageRequest.of(0, size));
+        String nextCursor = comments.size() < size ? null
+                : CommentCursor.of(comments.get(comments.size() - 1)).encode();
+        return new CommentPageDto(comments.stream()
                 .map(CommentMapper::toCommentDtoOut)
-                .collect(toList());
+                .collect(toList()), nextCursor);
     }
 
-    private BookingDtoOut getLastBooking(List<BookingDtoOut> bookings, LocalDateTime time) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Дата окончания не может быть раньше или равна дате начала");
         }
+        userService.getUser(userId);
+        boolean exists = itemSearchIndex.isEnabled()
+                ? itemSearchIndex.contains(itemId)
+                : itemRepository.existsById(itemId);
+        if (!exists) {
+            throw new NotFoundException("Вещи с " + itemId + " не существует");
+        }
+        List<BookingPeriodDto> bookings = bookingIntervalIndex.findOverlapping(itemId, from, to);
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .available(bookings.isEmpty())
+                .bookings(bookings)
+                .build();
+    }
 
-        return bookings
+    public List<CommentDtoOut> getLatestItemComments(Long itemId) {
+        return commentRepository.findAllByItemIdBefore(itemId, CommentCursor.FIRST.getCreated(),
+                        CommentCursor.FIRST.getId(), PageRequest.of(0, LATEST_COMMENTS))
                 .stream()
-                .filter(bookingDTO -> !bookingDTO.getStart().isAfter(time))
-                .reduce((booking1, booking2) -> booking1.getStart().isAfter(booking2.getStart()) ? booking1 : booking2)
-                .orElse(null);
+                .map(CommentMapper::toCommentDtoOut)
+                .collect(toList());
+    }
+
+    /**
+     * Последние LATEST_COMMENTS отзывов каждой вещи страницы: номера отбираются оконной
+     * функцией по индексу (item_id, created, id), сами отзывы вместе с авторами догружаются по id.
+     */
+    private List<Comment> getLatestComments(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = commentRepository.findLatestIdsByItemIdIn(itemIds, LATEST_COMMENTS);
+        return ids.isEmpty() ? List.of() : commentRepository.findAllWithAuthorByIdIn(ids);
     }
 
-    private BookingDtoOut getNextBooking(List<BookingDtoOut> bookings, LocalDateTime time) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    /**
+     * Общий для всех ожидающих результат загрузки; каждый вызов получает свою копию DTO.
+     */
+    private static final class ItemCard {
+        private final ItemDtoOut item;
+        private final Long ownerId;
+        private final List<CommentDtoOut> comments;
+        private final int commentCount;
+
+        private ItemCard(ItemDtoOut item, Long ownerId, List<CommentDtoOut> comments, int commentCount) {
+            this.item = item;
+            this.ownerId = ownerId;
+            this.comments = comments;
+            this.commentCount = commentCount;
         }
 
-        return bookings
-                .stream()
-                .filter(bookingDTO -> bookingDTO.getStart().isAfter(time))
-                .findFirst()
-                .orElse(null);
+        private ItemDtoOut toDto() {
+            return ItemDtoOut.builder()
+                    .id(item.getId())
+                    .name(item.getName())
+                    .description(item.getDescription())
+                    .available(item.getAvailable())
+                    .requestId(item.getRequestId())
+                    .comments(comments)
+                    .commentCount(commentCount)
+                    .build();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static ru.practicum.shareit.item.ItemController.USER_HEADER;
+
+/**
+ * Ограничение частоты запросов одного пользователя (X-Sharer-User-Id). Эндпоинты делятся на
+ * группы shareit.rate-limit.groups.*: у каждой свои шаблоны путей, ёмкость ведра и скорость
+ * пополнения, запрос относится к группе с самым точным подходящим шаблоном. Вёдра хранятся
+ * в Caffeine и вытесняются после idle-timeout без запросов, поэтому память ограничена
+ * max-buckets на группу при любом числе пользователей. idle-timeout должен быть не меньше
+ * времени полного пополнения ведра, иначе вытеснение раздаёт лишние токены.
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor, WebMvcConfigurer, MeterBinder {
+    public static final String THROTTLED = "shareit.ratelimit.throttled";
+    public static final String BUCKETS = "shareit.ratelimit.buckets";
+
+    private static final String GROUPS_PREFIX = "shareit.rate-limit.groups";
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    public RateLimitInterceptor(@Value("${shareit.rate-limit.enabled:true}") boolean enabled,
+                                @Value("${shareit.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                                @Value("${shareit.rate-limit.max-buckets:1000000}") long maxBuckets,
+                                Environment environment,
+                                ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        Binder.get(environment)
+                .bind(GROUPS_PREFIX, Bindable.mapOf(String.class, Budget.class))
+                .orElse(Collections.emptyMap())
+                .forEach((name, budget) -> groups.put(name, new Group(name, budget, idleTimeout, maxBuckets)));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Long userId = parse(request.getHeader(USER_HEADER));
+        Group group = group(request.getRequestURI().substring(request.getContextPath().length()));
+        if (userId == null || group == null) {
+            return true;
+        }
+        long wait = group.tryAcquire(userId, System.nanoTime());
+        if (wait == 0) {
+            return true;
+        }
+        group.throttled.increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.warn("Получен статус 429 TOO_MANY_REQUESTS: пользователь {} превысил лимит группы {}", userId, group.name);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(),
+                new ErrorResponse("Слишком много запросов, повторите через " + retryAfter + " с."));
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Group group : groups.values()) {
+            FunctionCounter.builder(THROTTLED, group.throttled, LongAdder::doubleValue)
+                    .description("Запросы, отклонённые ограничением частоты")
+                    .tag("group", group.name)
+                    .register(registry);
+            Gauge.builder(BUCKETS, group.buckets, Cache::estimatedSize)
+                    .description("Вёдра токенов в памяти")
+                    .tag("group", group.name)
+                    .register(registry);
+        }
+    }
+
+    private Group group(String path) {
+        Comparator<String> specificity = pathMatcher.getPatternComparator(path);
+        Group best = null;
+        String bestPattern = null;
+        for (Group group : groups.values()) {
+            for (String pattern : group.budget.getPaths()) {
+                if (pathMatcher.match(pattern, path)
+                        && (bestPattern == null || specificity.compare(pattern, bestPattern) < 0)) {
+                    best = group;
+                    bestPattern = pattern;
+                }
+            }
+        }
+        return best;
+    }
+
+    private Long parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Data
+    public static class Budget {
+        private List<String> paths = new ArrayList<>();
+        private long capacity;
+        private double refillPerSecond;
+    }
+
+    private static final class Group {
+        private final String name;
+        private final Budget budget;
+        private final long interval;
+        private final long tolerance;
+        private final Cache<Long, TokenBucket> buckets;
+        private final LongAdder throttled = new LongAdder();
+
+        private Group(String name, Budget budget, Duration idleTimeout, long maxBuckets) {
+            if (budget.getCapacity() < 1 || budget.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("Некорректный лимит группы " + name + ": " + budget);
+            }
+            this.name = name;
+            this.budget = budget;
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / budget.getRefillPerSecond());
+            this.tolerance = interval * (budget.getCapacity() - 1);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxBuckets)
+                    .expireAfterAccess(idleTimeout)
+                    .build();
+        }
+
+        private long tryAcquire(Long userId, long now) {
+            return buckets.get(userId, id -> new TokenBucket(now)).tryAcquire(now, interval, tolerance);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ведро токенов без блокировок. Вместо числа токенов хранится одно значение - момент,
+ * к которому ведро снова станет полным за вычетом запаса (GCRA). Это эквивалентно ведру
+ * ёмкостью capacity, пополняемому одним токеном раз в interval, но обновляется одним CAS.
+ */
+final class TokenBucket {
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * @return 0, если токен получен, иначе сколько наносекунд ждать следующего токена.
+     */
+    long tryAcquire(long now, long interval, long tolerance) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, now);
+            long wait = base - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, base + interval)) {
+                return 0;
+            }
+        }
+    }
+}
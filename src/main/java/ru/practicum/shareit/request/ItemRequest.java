@@ -4,7 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import ru.practicum.shareit.cache.CacheRegions;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -18,6 +21,8 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.REQUESTS)
 @Table(name = "requests", schema = "public")
 public class ItemRequest {
     @Id
@@ -26,7 +31,7 @@ public class ItemRequest {
     @Column(name = "description", nullable = false)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id", nullable = false)
     private User requester;
 
@@ -34,7 +39,7 @@ public class ItemRequest {
     @Column(name = "created")
     private LocalDateTime created;
 
-    @OneToMany
-    @JoinColumn(name = "request_id")
+    @OneToMany(mappedBy = "request")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.REQUEST_ITEMS)
     private List<Item> items = new ArrayList<>();
 }
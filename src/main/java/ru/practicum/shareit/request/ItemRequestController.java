@@ -2,8 +2,12 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.etag.ConditionalGet;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -23,6 +27,7 @@ import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 public class ItemRequestController {
 
     private final ItemRequestService requestService;
+    private final EntityVersions entityVersions;
 
     @PostMapping
     public ItemRequestDtoOut add(@RequestHeader(USER_HEADER) Long userId,
@@ -43,9 +48,12 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDtoOut get(@RequestHeader(USER_HEADER) Long userId,
-                                 @PathVariable Long requestId) {
-        return requestService.getRequestById(userId, requestId);
+    public ResponseEntity<ItemRequestDtoOut> get(@RequestHeader(USER_HEADER) Long userId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch,
+                                                 @PathVariable Long requestId) {
+        return ConditionalGet.respond(ifNoneMatch, entityVersions.requestTag(userId, requestId),
+                () -> requestService.getRequestById(userId, requestId));
     }
 }
 
@@ -3,11 +3,11 @@ package ru.practicum.shareit.request;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.user.User;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -28,13 +28,13 @@ public class ItemRequestMapper {
     }
 
     public ItemRequestDtoOut toRequestDtoOut(ItemRequest request) {
-        List<ItemDtoOut> itemsDtoOut = new ArrayList<>();
+        return toRequestDtoOut(request, Objects.isNull(request.getItems()) ? List.of() : request.getItems());
+    }
 
-        if (!Objects.isNull(request.getItems())) {
-            itemsDtoOut = request.getItems().stream()
-                    .map(ItemMapper::toItemDtoOut)
-                    .collect(Collectors.toList());
-        }
+    public ItemRequestDtoOut toRequestDtoOut(ItemRequest request, List<Item> items) {
+        List<ItemDtoOut> itemsDtoOut = items.stream()
+                .map(ItemMapper::toItemDtoOut)
+                .collect(Collectors.toList());
         return ItemRequestDtoOut.builder()
                 .id(request.getId())
                 .description(request.getDescription())
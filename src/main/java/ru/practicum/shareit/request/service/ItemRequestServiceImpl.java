@@ -6,6 +6,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -16,6 +18,7 @@ import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 
@@ -25,6 +28,7 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
 
     @Override
     @Transactional
@@ -39,19 +43,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     public List<ItemRequestDtoOut> getUserRequests(Long userId) {
         UserMapper.toUser(userService.getUser(userId));
-        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterId(userId);
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toRequestDtoOut)
-                .collect(Collectors.toList());
+        return toRequestDtoOut(requestRepository.findAllByRequesterId(userId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size) {
         UserMapper.toUser(userService.getUser(userId));
         List<ItemRequest> itemRequestList = requestRepository.findAllByRequester_IdNotOrderByCreatedDesc(userId, PageRequest.of(from / size, size));
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toRequestDtoOut)
-                .collect(Collectors.toList());
+        return toRequestDtoOut(itemRequestList);
     }
 
     @Override
@@ -63,5 +63,22 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         return ItemRequestMapper.toRequestDtoOut(requestById);
     }
-}
 
+    /**
+     * Вещи для всей страницы запросов загружаются одним запросом request_id IN (...),
+     * а не через ленивую коллекцию items каждого запроса.
+     */
+    private List<ItemRequestDtoOut> toRequestDtoOut(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByRequestIdIn(requests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toRequestDtoOut(request,
+                        itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+}
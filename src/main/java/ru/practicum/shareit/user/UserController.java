@@ -2,13 +2,19 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.markers.Create;
+import ru.practicum.shareit.user.service.UserImportService;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +25,9 @@ import java.util.Optional;
 @RequestMapping("/users")
 
 public class UserController {
+    public static final String NDJSON = "application/x-ndjson";
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @PostMapping
     public UserDto add(@Validated({Create.class}) @RequestBody UserDto userDto) {
@@ -27,6 +35,20 @@ public class UserController {
         return userService.addUser(userDto);
     }
 
+    /**
+     * Тело читается и обрабатывается пачками уже после ответа 200: результат по каждой строке
+     * (CREATED, DUPLICATE или INVALID) приходит строкой NDJSON по мере импорта.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, "text/csv"}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                             InputStream body) {
+        UserImportFormat format = UserImportFormat.from(contentType);
+        log.info("Запрос на импорт пользователей в формате {}", format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON + ";charset=UTF-8"))
+                .body(outputStream -> userImportService.importUsers(format, body, outputStream));
+    }
+
     @GetMapping("/{userId}")
     public Optional<UserDto> findById(@PathVariable Long userId) {
         log.info("Запрос на получение пользователя id = {}", userId);
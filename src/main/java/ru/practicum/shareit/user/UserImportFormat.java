@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+@Getter
+@RequiredArgsConstructor
+public enum UserImportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    public static UserImportFormat from(MediaType mediaType) {
+        return Arrays.stream(UserImportFormat.values())
+                .filter(value -> MediaType.parseMediaType(value.contentType).isCompatibleWith(mediaType))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResultDto {
+    private Integer line;
+    private Status status;
+    private UserDto user;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Фильтр Блума по email существующих пользователей для предварительной проверки импорта.
+ * Загружается из базы при первом обращении и дальше пополняется только импортом, поэтому
+ * email, добавленные иначе (POST /users, другой экземпляр), он может не знать: ответ "нет"
+ * - лишь подсказка, окончательно дубликат отсекает вставка в UserImportService.
+ */
+@Slf4j
+@Component
+public class KnownEmails {
+    private final JdbcTemplate jdbcTemplate;
+    private final BloomFilter filter;
+    private volatile boolean loaded;
+
+    public KnownEmails(JdbcTemplate jdbcTemplate,
+                       @Value("${shareit.users.import.expected-emails:1000000}") long expectedEmails,
+                       @Value("${shareit.users.import.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.filter = new BloomFilter(expectedEmails, falsePositiveRate);
+    }
+
+    public boolean mightExist(String email) {
+        if (!loaded) {
+            load();
+        }
+        return filter.mightContain(email);
+    }
+
+    public void add(String email) {
+        filter.put(email);
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        long[] count = new long[1];
+        jdbcTemplate.query("select email from users", resultSet -> {
+            filter.put(resultSet.getString(1));
+            count[0]++;
+        });
+        loaded = true;
+        log.info("Фильтр email загружен: {} адресов, {} бит, {} хешей", count[0], filter.bitCount(), filter.hashCount());
+    }
+}
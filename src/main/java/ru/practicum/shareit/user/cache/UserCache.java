@@ -0,0 +1,75 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.RoutingDataSource;
+import ru.practicum.shareit.user.UserDto;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш пользователей по id. Отсутствующие пользователи тоже кэшируются (Optional.empty()),
+ * чтобы повторная проверка неизвестного заголовка X-Sharer-User-Id не шла в базу, если только
+ * отсутствие не прочитано с реплики.
+ */
+@Component
+public class UserCache implements MeterBinder {
+    private final Cache<Long, Optional<UserDto>> cache;
+
+    public UserCache(@Value("${shareit.users.cache.max-size:10000}") long maxSize,
+                     @Value("${shareit.users.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Пустой результат, прочитанный с реплики, не кэшируется: пользователь мог быть только что создан
+     * на основной базе и ещё не доехать до реплики.
+     */
+    public Optional<UserDto> get(Long id, Function<Long, Optional<UserDto>> loader) {
+        Optional<UserDto> user = cache.get(id, key -> {
+            Optional<UserDto> loaded = loader.apply(key);
+            return loaded.isEmpty() && RoutingDataSource.isReadingReplica() ? null : loaded;
+        });
+        return user == null ? Optional.empty() : user
+                .map(found -> new UserDto(found.getId(), found.getName(), found.getEmail()));
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
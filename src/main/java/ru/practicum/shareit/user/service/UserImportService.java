@@ -0,0 +1,298 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserImportFormat;
+import ru.practicum.shareit.user.UserImportResultDto;
+import ru.practicum.shareit.user.UserImportResultDto.Status;
+import ru.practicum.shareit.user.cache.KnownEmails;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.markers.Create;
+
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт пользователей из NDJSON или CSV с заголовком name,email. Строки читаются
+ * и обрабатываются пачками по batch-size, результат по каждой строке пишется в ответ сразу после
+ * её пачки, поэтому память не зависит от размера файла.
+ *
+ * <p>Email, которых по KnownEmails точно нет в базе, идут прямо во вставку, остальные проверяются
+ * одним запросом email IN (...) на пачку. Вставка - JDBC-пакет INSERT ... WHERE NOT EXISTS
+ * в одной транзакции: устаревший фильтр или параллельная вставка того же email дают DUPLICATE
+ * с нулевым счётчиком строки, а не исключение. Если гонка всё же упёрлась в уникальный индекс,
+ * пачка откатывается и повторяется построчно.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+    static final String INSERT_IF_ABSENT = "insert into users (name, email) select ?, ? " +
+            "where not exists (select 1 from users where email = ?)";
+    private static final String FIND_EMAILS = "select email from users where email in (:emails)";
+    private static final String FIND_IDS = "select id, email from users where email in (:emails)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KnownEmails knownEmails;
+    private final UserCache userCache;
+    private final EntityVersions entityVersions;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+
+    public UserImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             KnownEmails knownEmails,
+                             UserCache userCache,
+                             EntityVersions entityVersions,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${shareit.users.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.knownEmails = knownEmails;
+        this.userCache = userCache;
+        this.entityVersions = entityVersions;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public void importUsers(UserImportFormat format, InputStream inputStream, OutputStream outputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        Map<Status, Integer> totals = new EnumMap<>(Status.class);
+        List<UserImportResultDto> batch = new ArrayList<>(batchSize);
+        int line = 0;
+        int[] columns = null;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == UserImportFormat.CSV && columns == null) {
+                columns = csvColumns(text);
+                if (columns == null) {
+                    write(writer, new UserImportResultDto(line, Status.INVALID, null,
+                            "Первая строка CSV должна быть заголовком с колонками name и email"));
+                    break;
+                }
+                continue;
+            }
+            batch.add(format == UserImportFormat.CSV ? parseCsv(line, text, columns) : parseNdjson(line, text));
+            if (batch.size() == batchSize) {
+                importBatch(batch, writer, totals);
+            }
+        }
+        importBatch(batch, writer, totals);
+        writer.flush();
+        log.info("Импорт пользователей в формате {} завершён: {}", format, totals);
+    }
+
+    private void importBatch(List<UserImportResultDto> batch, Writer writer, Map<Status, Integer> totals)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        insertNew(batch);
+        for (UserImportResultDto row : batch) {
+            write(writer, row);
+            totals.merge(row.getStatus(), 1, Integer::sum);
+        }
+        writer.flush();
+        batch.clear();
+    }
+
+    private void insertNew(List<UserImportResultDto> batch) {
+        Map<String, UserImportResultDto> candidates = new LinkedHashMap<>();
+        for (UserImportResultDto row : batch) {
+            if (row.getStatus() != null) {
+                continue;
+            }
+            String violations = validator.validate(row.getUser(), Create.class).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                row.setStatus(Status.INVALID);
+                row.setError(violations);
+            } else if (candidates.putIfAbsent(row.getUser().getEmail(), row) != null) {
+                row.setStatus(Status.DUPLICATE);
+            }
+        }
+        List<String> suspects = candidates.keySet().stream()
+                .filter(knownEmails::mightExist)
+                .collect(Collectors.toList());
+        if (!suspects.isEmpty()) {
+            jdbcTemplate.queryForList(FIND_EMAILS, Map.of("emails", suspects), String.class)
+                    .forEach(email -> candidates.remove(email).setStatus(Status.DUPLICATE));
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<UserImportResultDto> rows = new ArrayList<>(candidates.values());
+        int[] counts = insert(rows);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                candidates.remove(rows.get(i).getUser().getEmail()).setStatus(Status.DUPLICATE);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(FIND_IDS, Map.of("emails", new ArrayList<>(candidates.keySet())),
+                resultSet -> {
+                    ids.put(resultSet.getString("email"), resultSet.getLong("id"));
+                });
+        candidates.forEach((email, row) -> {
+            Long id = ids.get(email);
+            if (id == null) {
+                row.setStatus(Status.DUPLICATE);
+                return;
+            }
+            row.setStatus(Status.CREATED);
+            row.getUser().setId(id);
+            knownEmails.add(email);
+            userCache.invalidate(id);
+        });
+        entityVersions.userChanged();
+    }
+
+    private int[] insert(List<UserImportResultDto> rows) {
+        try {
+            return transactionTemplate.execute(status -> jdbcTemplate.getJdbcTemplate()
+                    .batchUpdate(INSERT_IF_ABSENT, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            bind(statement, rows.get(i).getUser());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пакет импорта из {} пользователей столкнулся с параллельной вставкой, повтор построчно",
+                    rows.size());
+        }
+        int[] counts = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            UserDto user = rows.get(i).getUser();
+            try {
+                counts[i] = jdbcTemplate.getJdbcTemplate().update(INSERT_IF_ABSENT, statement -> bind(statement, user));
+            } catch (DataIntegrityViolationException e) {
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    private static void bind(PreparedStatement statement, UserDto user) throws SQLException {
+        statement.setString(1, user.getName());
+        statement.setString(2, user.getEmail());
+        statement.setString(3, user.getEmail());
+    }
+
+    private UserImportResultDto parseNdjson(int line, String text) {
+        try {
+            UserDto user = objectMapper.readValue(text, UserDto.class);
+            user.setId(null);
+            return new UserImportResultDto(line, null, user, null);
+        } catch (JsonProcessingException e) {
+            return new UserImportResultDto(line, Status.INVALID, null, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private UserImportResultDto parseCsv(int line, String text, int[] columns) {
+        List<String> fields = csvFields(text);
+        if (fields == null || fields.size() <= Math.max(columns[0], columns[1])) {
+            return new UserImportResultDto(line, Status.INVALID, null, "Некорректная строка CSV");
+        }
+        UserDto user = new UserDto(null, fields.get(columns[0]), fields.get(columns[1]));
+        return new UserImportResultDto(line, null, user, null);
+    }
+
+    /**
+     * Позиции колонок name и email в заголовке или null, если какой-то из них нет.
+     */
+    private static int[] csvColumns(String header) {
+        List<String> names = csvFields(header);
+        if (names == null) {
+            return null;
+        }
+        names = names.stream().map(name -> name.trim().toLowerCase()).collect(Collectors.toList());
+        int name = names.indexOf("name");
+        int email = names.indexOf("email");
+        return name < 0 || email < 0 ? null : new int[]{name, email};
+    }
+
+    /**
+     * Поля одной строки CSV: кавычки экранируют запятые, "" внутри кавычек - сама кавычка.
+     * Возвращает null для незакрытой кавычки; многострочные поля не поддерживаются.
+     */
+    static List<String> csvFields(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void write(Writer writer, UserImportResultDto row) throws IOException {
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+}
@@ -5,11 +5,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exceptions.AlreadyExistException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.UserMapper;
 
@@ -25,6 +27,8 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final EntityVersions entityVersions;
     //private final UserMapper userMapper;
 
     @Override
@@ -33,6 +37,7 @@ public class UserServiceImpl implements UserService {
         User user = UserMapper.toUser(userDto);
         try {
             user = userRepository.save(user);
+            userCache.invalidate(user.getId());
         } catch (Exception e) {
             throw new AlreadyExistException("Пользователь с email " + user.getEmail() + "уже существует!");
         }
@@ -56,23 +61,26 @@ public class UserServiceImpl implements UserService {
         if (userDto.getName() == null) {
             userDto.setName(currentUser.getName());
         }
+        userCache.invalidate(userDto.getId());
+        entityVersions.userChanged();
         return UserMapper.toUserDto(userRepository.save(UserMapper.toUser(userDto)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserDto getUser(Long id) {
-        if (userRepository.existsById(id)) {
-            log.info("Информация о пользователе " + id + " успешно получена!");
-            return UserMapper.toUserDto(userRepository.findById(id).get());
-        }
-        throw new NotFoundException("Пользователя с таким id не существует!");
+        UserDto user = userCache.get(id, userId -> userRepository.findById(userId).map(UserMapper::toUserDto))
+                .orElseThrow(() -> new NotFoundException("Пользователя с таким id не существует!"));
+        log.info("Информация о пользователе " + id + " успешно получена!");
+        return user;
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
         userRepository.deleteById(id);
+        userCache.invalidate(id);
+        entityVersions.userChanged();
     }
 
     @Override
@@ -0,0 +1,3 @@
+-- Выполняется только в профиле postgres после schema.sql (см. application-postgres.properties).
+-- H2 не поддерживает частичные индексы, поэтому QueryPlanTest этот индекс не проверяет.
+CREATE INDEX IF NOT EXISTS idx_items_available ON items (id) WHERE available;
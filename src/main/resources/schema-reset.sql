@@ -0,0 +1,5 @@
+-- Пересоздание схемы при каждом запуске на файловой H2 (см. spring.sql.init.schema-locations
+-- в application.properties). В профиле postgres не выполняется.
+DROP TABLE IF EXISTS booking_outbox, requests, comments,bookings,items, users;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS booking_outbox_seq;
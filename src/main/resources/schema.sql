@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS requests, comments,bookings,items, users;
-
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -25,6 +23,7 @@ CREATE TABLE IF NOT EXISTS items
     available   BOOLEAN,
     owner_id    BIGINT       NOT NULL,
     request_id  BIGINT,
+    comment_count INTEGER NOT NULL DEFAULT 0,
     FOREIGN KEY (request_id) REFERENCES requests (id),
     CONSTRAINT fk_items_owner_id FOREIGN KEY (owner_id) REFERENCES users (id)
 );
@@ -37,10 +36,13 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT                      NOT NULL,
     booker_id  BIGINT                      NOT NULL,
     status     VARCHAR(64),
+    version    BIGINT                      NOT NULL DEFAULT 0,
     CONSTRAINT fk_bookings_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_bookings_booker_id FOREIGN KEY (booker_id) REFERENCES users (id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -50,4 +52,31 @@ CREATE TABLE IF NOT EXISTS comments
     created   TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT fk_comments_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS booking_outbox
+(
+    id         BIGINT                      NOT NULL PRIMARY KEY,
+    booking_id BIGINT                      NOT NULL,
+    item_id    BIGINT                      NOT NULL,
+    owner_id   BIGINT                      NOT NULL,
+    booker_id  BIGINT                      NOT NULL,
+    status     VARCHAR(64)                 NOT NULL,
+    created    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts   INTEGER                     NOT NULL DEFAULT 0
+);
+
+CREATE SEQUENCE IF NOT EXISTS booking_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_end ON bookings (status, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
@@ -0,0 +1,317 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.outbox.OutboxRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Выполняет EXPLAIN для каждого запроса репозиториев на заполненной базе H2 в режиме PostgreSQL
+ * и падает, если план содержит полный просмотр таблицы. Исключения перечислены в FULL_SCANS:
+ * это запросы, которым полный просмотр нужен по смыслу.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.QueryPlanTest$SqlCollector"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryPlanTest {
+    private static final int USERS = 200;
+    private static final int ITEMS_PER_USER = 5;
+    /**
+     * Запросы, которые просматривают таблицу целиком, и причина, по которой это допустимо.
+     */
+    private static final Map<String, String> FULL_SCANS = Map.of(
+            "search", "like '%текст%' не использует B-дерево; поиск обслуживает триграммный ItemSearchIndex, "
+                    + "запрос выполняется только при shareit.search.index.enabled=false",
+            "searchViews", "то же, что search",
+            "findAllByAvailableTrue", "читает все доступные вещи один раз при построении ItemSearchIndex");
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final List<String> failures = new ArrayList<>();
+    private Item item;
+
+    @BeforeEach
+    void seed() {
+        item = testEntityManager.find(Item.class, 1L);
+        if (item != null) {
+            return;
+        }
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(testEntityManager.persist(new User(null, "user" + i, "user" + i + "@email.com")));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User owner = users.get(i);
+            ItemRequest request = testEntityManager.persist(ItemRequest.builder()
+                    .description("request" + i)
+                    .requester(users.get((i + 1) % USERS))
+                    .created(now.minusDays(i))
+                    .build());
+            for (int j = 0; j < ITEMS_PER_USER; j++) {
+                items.add(testEntityManager.persist(new Item(null, "item" + i + "-" + j, "description",
+                        j % 2 == 0, owner, j == 0 ? request : null, 0)));
+            }
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Item bookedItem = items.get(i);
+            User booker = users.get((i + 7) % USERS);
+            for (int k = 0; k < 3; k++) {
+                testEntityManager.persist(new Booking(bookedItem, now.plusDays(k * 3L - 3), now.plusDays(k * 3L - 2),
+                        booker, BookingStatus.values()[(i + k) % BookingStatus.values().length]));
+            }
+            testEntityManager.persist(new Comment("comment", bookedItem, booker));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        // ANALYZE фиксирует транзакцию, поэтому данные заполняются один раз на весь класс
+        jdbcTemplate.execute("ANALYZE");
+        item = items.get(0);
+    }
+
+    @Test
+    void bookingRepositoryQueriesShouldUseIndexes() {
+        Long bookerId = 8L;
+        Long ownerId = 1L;
+        PageRequest page = PageRequest.of(1, 10);
+        PageRequest first = PageRequest.of(0, 10);
+        LocalDateTime cursorStart = BookingCursor.FIRST.getStart();
+        Long cursorId = BookingCursor.FIRST.getId();
+
+        assertIndexed("findAllBookingsByBookerId", () -> bookingRepository.findAllBookingsByBookerId(bookerId, page));
+        assertIndexed("findAllCurrentBookingsByBookerId", () -> bookingRepository.findAllCurrentBookingsByBookerId(bookerId, now, page));
+        assertIndexed("findAllPastBookingsByBookerId", () -> bookingRepository.findAllPastBookingsByBookerId(bookerId, now, page));
+        assertIndexed("findAllFutureBookingsByBookerId", () -> bookingRepository.findAllFutureBookingsByBookerId(bookerId, now, page));
+        assertIndexed("findAllWaitingBookingsByBookerId", () -> bookingRepository.findAllWaitingBookingsByBookerId(bookerId, now, page));
+        assertIndexed("findAllRejectedBookingsByBookerId", () -> bookingRepository.findAllRejectedBookingsByBookerId(bookerId, now, page));
+        assertIndexed("findAllBookingsByOwnerId", () -> bookingRepository.findAllBookingsByOwnerId(ownerId, page));
+        assertIndexed("findAllCurrentBookingsByOwnerId", () -> bookingRepository.findAllCurrentBookingsByOwnerId(ownerId, now, page));
+        assertIndexed("findAllPastBookingsByOwnerId", () -> bookingRepository.findAllPastBookingsByOwnerId(ownerId, now, page));
+        assertIndexed("findAllFutureBookingsByOwnerId", () -> bookingRepository.findAllFutureBookingsByOwnerId(ownerId, now, page));
+        assertIndexed("findAllWaitingBookingsByOwnerId", () -> bookingRepository.findAllWaitingBookingsByOwnerId(ownerId, now, page));
+        assertIndexed("findAllRejectedBookingsByOwnerId", () -> bookingRepository.findAllRejectedBookingsByOwnerId(ownerId, page));
+
+        assertIndexed("findAllBookingsByBookerIdBefore", () -> bookingRepository.findAllBookingsByBookerIdBefore(bookerId, cursorStart, cursorId, first));
+        assertIndexed("findAllCurrentBookingsByBookerIdBefore", () -> bookingRepository.findAllCurrentBookingsByBookerIdBefore(bookerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllPastBookingsByBookerIdBefore", () -> bookingRepository.findAllPastBookingsByBookerIdBefore(bookerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllFutureBookingsByBookerIdBefore", () -> bookingRepository.findAllFutureBookingsByBookerIdBefore(bookerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllWaitingBookingsByBookerIdBefore", () -> bookingRepository.findAllWaitingBookingsByBookerIdBefore(bookerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllRejectedBookingsByBookerIdBefore", () -> bookingRepository.findAllRejectedBookingsByBookerIdBefore(bookerId, cursorStart, cursorId, first));
+        assertIndexed("findAllBookingsByOwnerIdBefore", () -> bookingRepository.findAllBookingsByOwnerIdBefore(ownerId, cursorStart, cursorId, first));
+        assertIndexed("findAllCurrentBookingsByOwnerIdBefore", () -> bookingRepository.findAllCurrentBookingsByOwnerIdBefore(ownerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllPastBookingsByOwnerIdBefore", () -> bookingRepository.findAllPastBookingsByOwnerIdBefore(ownerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllFutureBookingsByOwnerIdBefore", () -> bookingRepository.findAllFutureBookingsByOwnerIdBefore(ownerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllWaitingBookingsByOwnerIdBefore", () -> bookingRepository.findAllWaitingBookingsByOwnerIdBefore(ownerId, cursorStart, cursorId, now, first));
+        assertIndexed("findAllRejectedBookingsByOwnerIdBefore", () -> bookingRepository.findAllRejectedBookingsByOwnerIdBefore(ownerId, cursorStart, cursorId, first));
+
+        assertIndexed("getLastBooking", () -> bookingRepository.getLastBooking(item.getId(), now));
+        assertIndexed("getNextBooking", () -> bookingRepository.getNextBooking(item.getId(), now));
+        assertIndexed("findAllByUserBookings", () -> bookingRepository.findAllByUserBookings(bookerId, item.getId(), now));
+        assertIndexed("findAllByItemInAndStatusOrderByStartAsc", () -> bookingRepository
+                .findAllByItemInAndStatusOrderByStartAsc(List.of(item), BookingStatus.APPROVED));
+        assertIndexed("findAllByItemAndStatusOrderByStartAsc", () -> bookingRepository
+                .findAllByItemAndStatusOrderByStartAsc(item, BookingStatus.APPROVED));
+        assertIndexed("findAllPeriods", () -> bookingRepository.findAllPeriods(BookingIntervalIndex.ACTIVE_STATUSES, now));
+        assertIndexed("findAllByStatusAndStartAfter", () -> bookingRepository
+                .findAllByStatusAndStartAfter(BookingStatus.APPROVED, now));
+        assertIndexed("findAllLastApproved", () -> bookingRepository.findAllLastApproved(now));
+        assertIndexed("findLastApproved", () -> bookingRepository.findLastApproved(item.getId(), now));
+        assertIndexed("findById", () -> bookingRepository.findById(1L));
+        assertIndexed("findWithItemAndBookerById", () -> bookingRepository.findWithItemAndBookerById(1L));
+        assertIndexed("updateStatusIfWaiting", () -> bookingRepository
+                .updateStatusIfWaiting(1L, ownerId, BookingStatus.APPROVED));
+        assertIndexed("streamAllByOwnerId", () -> {
+            try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(ownerId)) {
+                bookings.count();
+            }
+        });
+
+        assertIndexed("findPending", () -> outboxRepository.findPending(10, PageRequest.of(0, 100)));
+        assertIndexed("incrementAttempts", () -> outboxRepository.incrementAttempts(List.of(1L, 2L)));
+        assertIndexed("deleteAllByIdInBatch", () -> outboxRepository.deleteAllByIdInBatch(List.of(1L, 2L)));
+
+        assertNoFailures();
+    }
+
+    @Test
+    void itemRepositoryQueriesShouldUseIndexes() {
+        assertIndexed("findAllByOwnerId", () -> itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 10)));
+        assertIndexed("findAllByOwnerIdOrderByIdAsc", () -> itemRepository.findAllByOwnerIdOrderByIdAsc(1L, PageRequest.of(0, 2)));
+        assertIndexed("findById", () -> itemRepository.findById(item.getId()));
+        assertIndexed("findViewsByOwnerId", () -> itemRepository.findViewsByOwnerId(1L, PageRequest.of(0, 10)));
+        assertIndexed("findViewById", () -> itemRepository.findViewById(item.getId()));
+        assertIndexed("findAllByRequestIdIn", () -> itemRepository.findAllByRequestIdIn(List.of(1L, 2L)));
+        assertIndexed("findAllIds", () -> itemRepository.findAllIds());
+
+        assertIndexed("findAllByItemId", () -> commentRepository.findAllByItemId(item.getId()));
+        assertIndexed("findAllByItemIdIn", () -> commentRepository.findAllByItemIdIn(List.of(item.getId(), 2L)));
+        assertIndexed("findAllByItemIdBefore", () -> commentRepository
+                .findAllByItemIdBefore(item.getId(), now, Long.MAX_VALUE, PageRequest.of(0, 10)));
+        assertIndexed("findLatestIdsByItemIdIn", () -> commentRepository.findLatestIdsByItemIdIn(List.of(item.getId(), 2L), 10));
+        assertIndexed("findAllWithAuthorByIdIn", () -> commentRepository.findAllWithAuthorByIdIn(List.of(1L, 2L)));
+        assertIndexed("incrementCommentCount", () -> itemRepository.incrementCommentCount(item.getId()));
+
+        assertNoFailures();
+    }
+
+    @Test
+    void fullScanExclusionsShouldStillScan() {
+        assertScans("search", () -> itemRepository.search("item1", PageRequest.of(0, 10)));
+        assertScans("searchViews", () -> itemRepository.searchViews("item1", PageRequest.of(0, 10)));
+        assertScans("findAllByAvailableTrue", () -> itemRepository.findAllByAvailableTrue());
+
+        assertNoFailures();
+    }
+
+    @Test
+    void requestAndUserRepositoryQueriesShouldUseIndexes() {
+        assertIndexed("findAllByRequesterId", () -> requestRepository.findAllByRequesterId(2L));
+        assertIndexed("findAllByRequester_IdNotOrderByCreatedDesc", () -> requestRepository
+                .findAllByRequester_IdNotOrderByCreatedDesc(2L, PageRequest.of(0, 10)));
+        assertIndexed("findById", () -> requestRepository.findById(1L));
+
+        assertIndexed("existsByEmail", () -> userRepository.existsByEmail("user1@email.com"));
+        assertIndexed("existsById", () -> userRepository.existsById(1L));
+        assertIndexed("findById", () -> userRepository.findById(1L));
+
+        assertNoFailures();
+    }
+
+    private void assertIndexed(String query, Runnable call) {
+        testEntityManager.clear();
+        SqlCollector.STATEMENTS.clear();
+        call.run();
+        assertTrue(!SqlCollector.STATEMENTS.isEmpty(), query + " не выполнил ни одного запроса");
+        for (String sql : SqlCollector.STATEMENTS) {
+            String plan = explain(sql);
+            if (plan.contains("tableScan")) {
+                failures.add(query + ":\n" + plan);
+            }
+        }
+    }
+
+    /**
+     * Для запросов из FULL_SCANS: если план перестал быть полным просмотром, исключение больше не нужно.
+     */
+    private void assertScans(String query, Runnable call) {
+        assertTrue(FULL_SCANS.containsKey(query), query + " не указан в FULL_SCANS");
+        testEntityManager.clear();
+        SqlCollector.STATEMENTS.clear();
+        call.run();
+        assertTrue(!SqlCollector.STATEMENTS.isEmpty(), query + " не выполнил ни одного запроса");
+        boolean scans = SqlCollector.STATEMENTS.stream().anyMatch(sql -> explain(sql).contains("tableScan"));
+        if (!scans) {
+            failures.add(query + ": больше не просматривает таблицу целиком, уберите его из FULL_SCANS");
+        }
+    }
+
+    private void assertNoFailures() {
+        if (!failures.isEmpty()) {
+            fail("Запросы с полным просмотром таблицы:\n" + String.join("\n\n", failures));
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    statement.setObject(i, sampleValue(parameters.getParameterType(i)));
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private Object sampleValue(int sqlType) {
+        switch (sqlType) {
+            case Types.TIMESTAMP:
+                return Timestamp.valueOf(now);
+            case Types.VARCHAR:
+                return BookingStatus.APPROVED.name();
+            case Types.BOOLEAN:
+                return true;
+            default:
+                return 1L;
+        }
+    }
+
+    public static class SqlCollector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
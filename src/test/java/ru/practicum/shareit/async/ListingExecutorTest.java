@@ -0,0 +1,46 @@
+package ru.practicum.shareit.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ListingExecutorTest {
+
+    private final ListingExecutor listingExecutor = new ListingExecutor(1, 1, 1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        listingExecutor.destroy();
+    }
+
+    @Test
+    void supplyShouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        CompletableFuture<String> running = listingExecutor.supply(this::blocked);
+        CompletableFuture<String> queued = listingExecutor.supply(this::blocked);
+
+        assertThrows(RejectedExecutionException.class, () -> listingExecutor.supply(this::blocked));
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private String blocked() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.NotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("test");
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void executeShouldShareInFlightCallBetweenConcurrentCallers() throws Exception {
+        singleFlight.bindTo(meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "item";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        while (joined() < 3) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("item", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("item", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get(SingleFlight.CALLS).tag("result", "executed").functionCounter().count());
+        assertEquals("again", singleFlight.execute(1L, () -> "again"));
+    }
+
+    @Test
+    void executeShouldRethrowLoaderException() {
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> singleFlight.execute(1L, () -> {
+            throw new NotFoundException("нет вещи");
+        }));
+
+        assertEquals("нет вещи", exception.getMessage());
+        assertEquals("item", singleFlight.execute(1L, () -> "item"));
+    }
+
+    private double joined() {
+        return meterRegistry.get(SingleFlight.CALLS).tag("result", "joined").functionCounter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
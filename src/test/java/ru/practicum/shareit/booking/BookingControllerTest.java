@@ -6,27 +6,42 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.async.ListingExecutor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingExportService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import({ListingExecutor.class, EntityVersions.class})
 class BookingControllerTest {
 
     @Autowired
@@ -38,6 +53,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private BookingExportService bookingExportService;
+
     private final User user = User.builder()
             .id(1L)
             .name("username")
@@ -83,6 +101,37 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(bookingDtoOut), result);
     }
 
+    @Test
+    @SneakyThrows
+    void createBatchShouldReturnResultPerElement() {
+        List<BookingBatchResultDto> results = List.of(new BookingBatchResultDto(0, bookingDtoOut, null),
+                new BookingBatchResultDto(1, null, "Вещь не найдена."));
+        when(bookingService.addAll(user.getId(), List.of(bookingDto, bookingDto))).thenReturn(results);
+
+        String result = mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content(objectMapper.writeValueAsString(List.of(bookingDto, bookingDto))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void createBatchWhenEmptyShouldReturnBadRequest() {
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).addAll(anyLong(), anyList());
+    }
+
     @Test
     @SneakyThrows
     void createBookingWhenBookingIsNotValid() {
@@ -179,11 +228,15 @@ class BookingControllerTest {
         when(bookingService.findAll(user.getId(), BookingState.ALL.toString(), 0, 10))
                 .thenReturn(List.of(bookingDtoOut));
 
-        String result = mockMvc.perform(get("/bookings")
+        MvcResult mvcResult = mockMvc.perform(get("/bookings")
                         .param("state", state)
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size))
                         .header(USER_HEADER, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -203,11 +256,15 @@ class BookingControllerTest {
         when(bookingService.findAllOwner(user.getId(), BookingState.ALL.toString(), 0, 10))
                 .thenReturn(List.of(bookingDtoOut));
 
-        String result = mockMvc.perform(get("/bookings/owner")
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/owner")
                         .param("state", state)
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size))
                         .header(USER_HEADER, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -216,4 +273,75 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(List.of(bookingDtoOut)), result);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void getAllByOwnerWithCursorShouldReturnNextCursorHeader() {
+        String state = "ALL";
+        BookingPageDto page = new BookingPageDto(List.of(bookingDtoOut), "next");
+
+        when(bookingService.findAllOwnerByCursor(user.getId(), BookingState.ALL.toString(), "", 1))
+                .thenReturn(page);
+
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/owner")
+                        .param("state", state)
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "next"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(List.of(bookingDtoOut)), result);
+        verify(bookingService, never()).findAllOwner(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerShouldStreamBookings() {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingExportService).exportOwner(eq(user.getId()), eq(BookingExportFormat.NDJSON), any(OutputStream.class));
+
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andExpect(content().string("{\"id\":1}\n"));
+        verify(bookingExportService).checkOwner(user.getId());
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerShouldUseConfiguredAsyncTimeout() {
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), mvcResult.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    @SneakyThrows
+    void exportOwnerWhenFormatIsUnknownShouldReturnBadRequest() {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_HEADER, user.getId())
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingExportService, never()).checkOwner(anyLong());
+    }
+}
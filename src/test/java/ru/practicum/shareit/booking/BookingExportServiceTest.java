@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingExportService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExportServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private UserService userService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @InjectMocks
+    private BookingExportService bookingExportService;
+
+    private final User booker = User.builder()
+            .id(1L)
+            .name("Иван, младший")
+            .email("booker@email.com")
+            .build();
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("Дрель \"Мастер\"")
+            .description("description")
+            .available(true)
+            .build();
+
+    private final Booking booking = Booking.builder()
+            .id(1L)
+            .item(item)
+            .booker(booker)
+            .start(LocalDateTime.of(2030, 1, 1, 10, 0))
+            .end(LocalDateTime.of(2030, 1, 2, 10, 0))
+            .status(BookingStatus.APPROVED)
+            .build();
+
+    @Test
+    void exportOwnerAsCsvShouldEscapeFields() throws Exception {
+        when(bookingRepository.streamAllByOwnerId(2L)).thenReturn(Stream.of(booking));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookingExportService.exportOwner(2L, BookingExportFormat.CSV, outputStream);
+
+        assertEquals("id,start,end,status,itemId,itemName,bookerId,bookerName\n" +
+                        "1,2030-01-01T10:00,2030-01-02T10:00,APPROVED,1,\"Дрель \"\"Мастер\"\"\",1,\"Иван, младший\"\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportOwnerAsNdjsonShouldWriteOneObjectPerLine() throws Exception {
+        when(bookingRepository.streamAllByOwnerId(2L)).thenReturn(Stream.of(booking, booking));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookingExportService.exportOwner(2L, BookingExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[1]).get("id").asLong());
+        assertEquals("2030-01-01T10:00:00", objectMapper.readTree(lines[1]).get("start").asText());
+    }
+}
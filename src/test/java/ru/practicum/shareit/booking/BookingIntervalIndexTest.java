@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1L).withNano(0);
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("item name")
+            .description("description")
+            .available(true)
+            .build();
+
+    @BeforeEach
+    void init() {
+        when(bookingRepository.findAllPeriods(any(), any())).thenReturn(List.of());
+        index = new BookingIntervalIndex(bookingRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void reserveWhenPeriodsDoNotOverlap() {
+        index.reserve(booking(1L, base, base.plusDays(1L)));
+        index.reserve(booking(2L, base.plusDays(1L), base.plusDays(2L)));
+
+        assertFalse(index.isFree(item.getId(), base, base.plusDays(2L)));
+        assertEquals(2, index.findOverlapping(item.getId(), base, base.plusDays(2L)).size());
+    }
+
+    @Test
+    void reserveWhenPeriodOverlapsShouldThrowValidationException() {
+        index.reserve(booking(1L, base, base.plusDays(10L)));
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> index.reserve(booking(2L, base.plusDays(5L), base.plusDays(6L))));
+
+        assertEquals("Вещь уже забронирована на указанные даты.", exception.getMessage());
+        assertTrue(index.isFree(item.getId(), base.plusDays(10L), base.plusDays(11L)));
+        assertTrue(index.isFree(2L, base, base.plusDays(10L)));
+    }
+
+    @Test
+    void updateWhenRejectedShouldReleasePeriod() {
+        Booking booking = booking(1L, base, base.plusDays(1L));
+        index.reserve(booking);
+
+        booking.setStatus(BookingStatus.REJECTED);
+        index.update(booking);
+
+        assertTrue(index.isFree(item.getId(), base, base.plusDays(1L)));
+    }
+
+    @Test
+    void updateWhenApprovedShouldKeepPeriod() {
+        Booking booking = booking(1L, base, base.plusDays(1L));
+        index.reserve(booking);
+
+        booking.setStatus(BookingStatus.APPROVED);
+        index.update(booking);
+
+        assertEquals(BookingStatus.APPROVED,
+                index.findOverlapping(item.getId(), base, base.plusHours(1L)).get(0).getStatus());
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.booking.journal.BookingJournal;
+import ru.practicum.shareit.booking.journal.BookingJournalReader;
+import ru.practicum.shareit.booking.journal.BookingJournalRecord;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private BookingJournal journal;
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @AfterEach
+    void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void recordShouldBeReadBackByReader() {
+        journal = journal(DataSize.ofKilobytes(64));
+        journal.record(booking(1L, BookingStatus.WAITING));
+        journal.record(booking(1L, BookingStatus.APPROVED));
+
+        List<BookingJournalRecord> records = journal.reader().read(1, 10);
+
+        assertEquals(2, records.size());
+        BookingJournalRecord approved = records.get(1);
+        assertEquals(2L, approved.getSequence());
+        assertEquals(1L, approved.getBookingId());
+        assertEquals(2L, approved.getItemId());
+        assertEquals(3L, approved.getBookerId());
+        assertEquals(start, approved.getStart());
+        assertEquals(start.plusDays(1), approved.getEnd());
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+    }
+
+    @Test
+    void readerShouldTailAcrossSegments() throws IOException {
+        journal = journal(DataSize.ofBytes(BookingJournalRecord.SIZE * 3L));
+        BookingJournalReader reader = journal.reader();
+        for (long id = 1; id <= 4; id++) {
+            journal.record(booking(id, BookingStatus.WAITING));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), bookingIds(reader.read(1, 3)));
+        assertTrue(reader.read(5, 10).isEmpty());
+
+        journal.record(booking(5L, BookingStatus.REJECTED));
+
+        assertEquals(List.of(4L, 5L), bookingIds(reader.read(4, 10)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".journal")).count());
+        }
+    }
+
+    @Test
+    void reopenedJournalShouldContinueSequence() throws IOException {
+        journal = journal(DataSize.ofKilobytes(64));
+        journal.record(booking(1L, BookingStatus.WAITING));
+        journal.close();
+
+        journal = journal(DataSize.ofKilobytes(64));
+        journal.record(booking(2L, BookingStatus.WAITING));
+
+        List<BookingJournalRecord> records = journal.reader().read(1, 10);
+        assertEquals(List.of(1L, 2L), bookingIds(records));
+        assertEquals(2L, records.get(1).getSequence());
+    }
+
+    @Test
+    void recordShouldCaptureBookingStateBeforeCommit() {
+        journal = journal(DataSize.ofKilobytes(64));
+        Booking booking = booking(1L, BookingStatus.WAITING);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.record(booking);
+            booking.setStatus(BookingStatus.APPROVED);
+            booking.setEnd(start.plusDays(5));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        BookingJournalRecord record = journal.reader().read(1, 1).get(0);
+        assertEquals(BookingStatus.WAITING, record.getStatus());
+        assertEquals(start.plusDays(1), record.getEnd());
+    }
+
+    @Test
+    void failedOpenShouldReleaseLockAndReportFailure() throws IOException {
+        Path broken = Files.createFile(directory.resolve("broken.journal"));
+        journal = journal(DataSize.ofKilobytes(64));
+
+        journal.record(booking(1L, BookingStatus.WAITING));
+
+        Health health = journal.health();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals(1L, health.getDetails().get("failures"));
+
+        Files.delete(broken);
+        journal.record(booking(2L, BookingStatus.WAITING));
+
+        assertEquals(List.of(2L), bookingIds(journal.reader().read(1, 10)));
+        assertEquals(Status.UP, journal.health().getStatus());
+    }
+
+    private BookingJournal journal(DataSize segmentSize) {
+        return new BookingJournal(true, directory, segmentSize, BookingJournal.SyncPolicy.ALWAYS);
+    }
+
+    private List<Long> bookingIds(List<BookingJournalRecord> records) {
+        return records.stream()
+                .map(BookingJournalRecord::getBookingId)
+                .collect(Collectors.toList());
+    }
+
+    private Booking booking(Long id, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(2L).build())
+                .booker(User.builder().id(3L).build())
+                .start(start)
+                .end(start.plusDays(1))
+                .status(status)
+                .build();
+    }
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -17,6 +21,8 @@ import ru.practicum.shareit.user.User;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -88,6 +94,25 @@ class BookingRepositoryTest {
         bookingRepository.deleteAll();
     }
 
+    @Test
+    void updateStatusIfWaitingShouldChangeStatusOnlyOnce() {
+        Booking waiting = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(3L))
+                .end(LocalDateTime.now().plusDays(4L))
+                .build());
+
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(waiting.getId(), user.getId(), BookingStatus.APPROVED));
+        assertEquals(1, bookingRepository.updateStatusIfWaiting(waiting.getId(), owner.getId(), BookingStatus.APPROVED));
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(waiting.getId(), owner.getId(), BookingStatus.REJECTED));
+
+        Booking updated = bookingRepository.findWithItemAndBookerById(waiting.getId()).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, updated.getStatus());
+        assertEquals(1L, updated.getVersion());
+    }
+
     @Test
     void findAllByBookerId() {
         List<Booking> bookings = bookingRepository.findAllBookingsByBookerId(1L, PageRequest.of(0, 10));
@@ -266,4 +291,49 @@ class BookingRepositoryTest {
             fail();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllBookingsByOwnerIdBeforeShouldSeekPastCursor() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+        List<Booking> firstPage = bookingRepository.findAllBookingsByOwnerIdBefore(2L,
+                BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 2));
+        BookingCursor cursor = BookingCursor.decode(BookingCursor.of(firstPage.get(1)).encode());
+        List<Booking> secondPage = bookingRepository.findAllBookingsByOwnerIdBefore(2L,
+                cursor.getStart(), cursor.getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(3L, firstPage.get(0).getId());
+        assertEquals(1L, firstPage.get(1).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(2L, secondPage.get(0).getId());
+    }
+
+    @Test
+    void findAllBookingsByOwnerIdShouldFetchItemAndBookerInOneStatement() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingDtoOut> bookings = bookingRepository.findAllBookingsByOwnerId(2L, PageRequest.of(0, 100)).stream()
+                .map(BookingMapper::toBookingOut)
+                .collect(Collectors.toList());
+
+        assertEquals(3, bookings.size());
+        assertEquals("name", bookings.get(0).getBooker().getName());
+        assertEquals(1L, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void streamAllByOwnerIdShouldReturnBookingsInListingOrder() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(2L)) {
+            assertEquals(List.of(3L, 1L, 2L), bookings.map(Booking::getId).collect(Collectors.toList()));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -19,6 +20,7 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -64,6 +66,12 @@ public class BookingServiceIT {
             .end(LocalDateTime.now().plusSeconds(11L))
             .build();
 
+    private final BookingDto bookingDto2 = BookingDto.builder()
+            .itemId(2L)
+            .start(LocalDateTime.now().plusSeconds(20L))
+            .end(LocalDateTime.now().plusSeconds(21L))
+            .build();
+
     @Test
     void addBooking() {
         UserDto addedUser1 = userService.addUser(userDto1);
@@ -72,7 +80,7 @@ public class BookingServiceIT {
         itemService.add(addedUser2.getId(), itemDto2);
 
         BookingDtoOut bookingDtoOut1 = bookingService.add(addedUser1.getId(), bookingDto1);
-        BookingDtoOut bookingDtoOut2 = bookingService.add(addedUser1.getId(), bookingDto1);
+        BookingDtoOut bookingDtoOut2 = bookingService.add(addedUser1.getId(), bookingDto2);
 
         assertEquals(1L, bookingDtoOut1.getId());
         assertEquals(2L, bookingDtoOut2.getId());
@@ -93,6 +101,32 @@ public class BookingServiceIT {
         assertEquals(2, bookingsDtoOut.size());
     }
 
+    @Test
+    void addAllWhenRowsOverlapShouldStoreOnlyFirst() {
+        UserDto booker = userService.addUser(userDto1);
+        UserDto owner = userService.addUser(userDto2);
+        Long itemId = itemService.add(owner.getId(), itemDto2).getId();
+        BookingDto first = BookingDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(3))
+                .build();
+        BookingDto overlapping = BookingDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(4))
+                .build();
+
+        List<BookingBatchResultDto> results = bookingService.addAll(booker.getId(), List.of(first, overlapping));
+
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertEquals("Вещь уже забронирована на указанные даты.", results.get(1).getError());
+        List<BookingDtoOut> stored = bookingService.findAllOwner(owner.getId(), BookingState.ALL.toString(), 0, 10);
+        assertEquals(List.of(results.get(0).getBooking().getId()), stored.stream()
+                .map(BookingDtoOut::getId)
+                .collect(Collectors.toList()));
+    }
+
     @Test
     void update_whenBookingIdAndUserIdIsNotValid_thenThrowObjectNotFoundException() {
         Long userId = 3L;
@@ -1,17 +1,29 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.ItemBookingReadModel;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.journal.BookingJournal;
+import ru.practicum.shareit.booking.outbox.OutboxEvent;
+import ru.practicum.shareit.booking.outbox.OutboxRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -25,9 +37,15 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +60,24 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemBookingReadModel itemBookingReadModel;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private EntityVersions entityVersions;
+
+    @Mock
+    private BookingJournal bookingJournal;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -108,14 +144,73 @@ class BookingServiceImplTest {
         BookingDtoOut expectedBookingDtoOut = BookingMapper.toBookingOut(BookingMapper.toBooking(user, item, bookingDto));
         when(userService.getUser(userDto.getId())).thenReturn(userDto);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.isFree(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
         when(bookingRepository.save(any(Booking.class))).thenReturn(BookingMapper.toBooking(user, item, bookingDto));
 
         BookingDtoOut actualBookingDtoOut = bookingService.add(userDto.getId(), bookingDto);
 
         assertEquals(expectedBookingDtoOut, actualBookingDtoOut);
+        verify(bookingIntervalIndex).reserve(any(Booking.class));
+        verify(outboxRepository).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void createWhenItemIsAlreadyBookedShouldThrowValidationException() {
+        when(userService.getUser(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.isFree(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+
+        ValidationException bookingValidationException = assertThrows(ValidationException.class,
+                () -> bookingService.add(userDto.getId(), bookingDto));
+
+        assertEquals(bookingValidationException.getMessage(), "Вещь уже забронирована на указанные даты.");
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(outboxRepository, never()).save(any(OutboxEvent.class));
     }
 
 
+    @Test
+    void createBatchShouldReportResultPerElement() {
+        BookingDto unknownItem = BookingDto.builder()
+                .itemId(99L)
+                .start(bookingDto.getStart())
+                .end(bookingDto.getEnd())
+                .build();
+        when(userService.getUser(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item));
+        when(bookingIntervalIndex.isFree(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingBatchResultDto> results = bookingService.addAll(userDto.getId(),
+                List.of(bookingDto, bookingDtoEndBeforeStart, unknownItem));
+
+        assertEquals(3, results.size());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals("Дата окончания не может быть раньше или равна дате начала", results.get(1).getError());
+        assertEquals("Вещь не найдена.", results.get(2).getError());
+        verify(itemRepository, times(1)).findAllById(anySet());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingIntervalIndex, times(1)).reserve(any(Booking.class));
+    }
+
+    @Test
+    void createBatchWhenReserveFailsAfterSaveShouldDeleteBooking() {
+        when(userService.getUser(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item));
+        when(bookingIntervalIndex.isFree(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new ValidationException("Вещь уже забронирована на указанные даты."))
+                .when(bookingIntervalIndex).reserve(any(Booking.class));
+
+        List<BookingBatchResultDto> results = bookingService.addAll(userDto.getId(), List.of(bookingDto));
+
+        assertEquals("Вещь уже забронирована на указанные даты.", results.get(0).getError());
+        verify(bookingRepository).delete(any(Booking.class));
+        verify(bookingJournal, never()).record(any(Booking.class));
+        verify(outboxRepository, never()).save(any(OutboxEvent.class));
+    }
+
     @Test
     void createWhenEndIsBeforeStartShouldThrowValidationException() {
         when(userService.getUser(userDto.getId())).thenReturn(userDto);
@@ -161,6 +256,24 @@ class BookingServiceImplTest {
         assertEquals(bookingValidationException.getMessage(), "Бронь не cо статусом WAITING");
     }
 
+    @Test
+    void updateShouldChangeStatusWithConditionalUpdate() {
+        when(bookingRepository.updateStatusIfWaiting(bookingWaiting.getId(), owner.getId(), BookingStatus.REJECTED))
+                .thenReturn(1);
+        bookingWaiting.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findWithItemAndBookerById(bookingWaiting.getId()))
+                .thenReturn(Optional.of(bookingWaiting));
+
+        BookingDtoOut actualBookingDtoOut = bookingService.update(owner.getId(), bookingWaiting.getId(), false);
+
+        assertEquals(BookingStatus.REJECTED, actualBookingDtoOut.getStatus());
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).save(any());
+        verify(bookingIntervalIndex).update(bookingWaiting);
+        verify(bookingJournal).record(bookingWaiting);
+        verify(outboxRepository).save(any(OutboxEvent.class));
+    }
+
     @Test
     void getById() {
         BookingDtoOut expectedBookingDtoOut = BookingMapper.toBookingOut(booking);
@@ -200,6 +313,11 @@ class BookingServiceImplTest {
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "ALL", 0, 10);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
+        assertEquals(1L, meterRegistry.get(BookingServiceImpl.LIST_TIMER)
+                .tag("role", "booker")
+                .tag("state", "ALL")
+                .timer()
+                .count());
     }
 
     @Test
@@ -348,4 +466,35 @@ class BookingServiceImplTest {
         assertThrows(IllegalArgumentException.class,
                 () -> bookingService.findAllOwner(user.getId(), "ERROR", 0, 10));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByBookerByCursorWhenPageIsFullShouldReturnNextCursor() {
+        when(userService.getUser(user.getId())).thenReturn(userDto);
+        when(bookingRepository.findAllBookingsByBookerIdBefore(anyLong(), any(LocalDateTime.class), anyLong(),
+                any(Pageable.class))).thenReturn(List.of(booking));
+
+        BookingPageDto page = bookingService.findAllByCursor(user.getId(), "ALL", null, 1);
+
+        assertEquals(List.of(BookingMapper.toBookingOut(booking)), page.getBookings());
+        assertEquals(BookingCursor.of(booking), BookingCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getAllByOwnerByCursorWhenLastPageShouldNotReturnNextCursor() {
+        when(userService.getUser(owner.getId())).thenReturn(userDto);
+        when(bookingRepository.findAllFutureBookingsByOwnerIdBefore(anyLong(), any(LocalDateTime.class), anyLong(),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+
+        BookingPageDto page = bookingService.findAllOwnerByCursor(owner.getId(), "FUTURE",
+                BookingCursor.of(booking).encode(), 10);
+
+        assertEquals(1, page.getBookings().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getAllByOwnerByCursorWhenCursorIsNotValidShouldThrowValidationException() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.findAllOwnerByCursor(owner.getId(), "ALL", "not a cursor", 10));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.index.ItemBookingReadModel;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingReadModelTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private ItemBookingReadModel readModel;
+
+    private final User booker = User.builder()
+            .id(1L)
+            .name("booker")
+            .email("booker@email.com")
+            .build();
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("item name")
+            .description("description")
+            .available(true)
+            .build();
+
+    private final ItemDtoOut itemDtoOut = ItemMapper.toItemDtoOut(item);
+
+    private final Booking past = booking(1L, LocalDateTime.now().minusDays(2L), BookingStatus.APPROVED);
+
+    private final Booking soon = booking(2L, LocalDateTime.now().plusSeconds(1L), BookingStatus.APPROVED);
+
+    private final Booking later = booking(3L, LocalDateTime.now().plusDays(2L), BookingStatus.APPROVED);
+
+    @BeforeEach
+    void init() {
+        when(bookingRepository.findAllLastApproved(any(LocalDateTime.class))).thenReturn(List.of(past));
+        when(bookingRepository.findAllByStatusAndStartAfter(eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(List.of(later, soon));
+        readModel = new ItemBookingReadModel(bookingRepository, new EntityVersions());
+        readModel.rebuild();
+    }
+
+    @Test
+    void getShouldReturnLastAndNextApprovedBookings() {
+        assertEquals(1L, readModel.getLastBooking(itemDtoOut).getId());
+        assertEquals(2L, readModel.getNextBooking(itemDtoOut).getId());
+        assertEquals(itemDtoOut, readModel.getNextBooking(itemDtoOut).getItem());
+        assertNull(readModel.getLastBooking(new ItemDtoOut(2L, "other", "other", true)));
+    }
+
+    @Test
+    void rollForwardShouldMoveStartedBookingToLast() throws InterruptedException {
+        Thread.sleep(1100L);
+        readModel.rollForward();
+
+        assertEquals(2L, readModel.getLastBooking(itemDtoOut).getId());
+        assertEquals(3L, readModel.getNextBooking(itemDtoOut).getId());
+    }
+
+    @Test
+    void updateWhenRejectedShouldRemoveBooking() {
+        later.setStatus(BookingStatus.REJECTED);
+        readModel.update(later);
+        soon.setStatus(BookingStatus.REJECTED);
+        readModel.update(soon);
+
+        assertNull(readModel.getNextBooking(itemDtoOut));
+        assertEquals(1L, readModel.getLastBooking(itemDtoOut).getId());
+    }
+
+    @Test
+    void updateWhenLastIsRejectedShouldReloadFromRepository() {
+        Booking older = booking(4L, LocalDateTime.now().minusDays(5L), BookingStatus.APPROVED);
+        when(bookingRepository.findLastApproved(anyLong(), any(LocalDateTime.class))).thenReturn(List.of(older));
+
+        past.setStatus(BookingStatus.REJECTED);
+        readModel.update(past);
+
+        assertEquals(4L, readModel.getLastBooking(itemDtoOut).getId());
+    }
+
+    @Test
+    void updateWhenApprovedShouldBecomeNext() {
+        Booking approved = booking(5L, LocalDateTime.now().plusHours(1L), BookingStatus.APPROVED);
+        readModel.update(approved);
+        soon.setStatus(BookingStatus.REJECTED);
+        readModel.update(soon);
+
+        assertEquals(5L, readModel.getNextBooking(itemDtoOut).getId());
+    }
+
+    private Booking booking(Long id, LocalDateTime start, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusHours(1L))
+                .status(status)
+                .build();
+    }
+}
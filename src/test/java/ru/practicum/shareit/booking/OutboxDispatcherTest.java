@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.outbox.BookingNotification;
+import ru.practicum.shareit.booking.outbox.NotificationSink;
+import ru.practicum.shareit.booking.outbox.OutboxDispatcher;
+import ru.practicum.shareit.booking.outbox.OutboxEvent;
+import ru.practicum.shareit.booking.outbox.OutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<BookingNotification> delivered = new ArrayList<>();
+    private boolean sinkDown;
+    private Long poisonBookingId;
+
+    private final NotificationSink sink = notifications -> {
+        if (sinkDown) {
+            throw new IllegalStateException("приёмник недоступен");
+        }
+        if (notifications.stream().anyMatch(notification -> notification.getBookingId().equals(poisonBookingId))) {
+            throw new IllegalArgumentException("приёмник не принимает событие");
+        }
+        delivered.addAll(notifications);
+    };
+
+    @Test
+    void dispatchShouldDeliverAllEventsInBatchesAndDeleteThem() {
+        for (long bookingId = 1; bookingId <= 5; bookingId++) {
+            outboxRepository.save(event(bookingId));
+        }
+
+        new OutboxDispatcher(outboxRepository, sink, meterRegistry, 2, 10).dispatch();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), delivered.stream()
+                .map(BookingNotification::getBookingId)
+                .collect(Collectors.toList()));
+        assertEquals(0, outboxRepository.count());
+        assertEquals(5.0, meterRegistry.counter(OutboxDispatcher.DISPATCHED).count());
+        assertEquals(5, meterRegistry.timer(OutboxDispatcher.DELIVERY_LAG).count());
+    }
+
+    @Test
+    void dispatchWhenSinkFailsShouldKeepEventsForRetry() {
+        outboxRepository.save(event(1L));
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxRepository, sink, meterRegistry, 10, 10);
+
+        sinkDown = true;
+        dispatcher.dispatch();
+
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, outboxRepository.findAll().get(0).getAttempts());
+        assertEquals(1.0, meterRegistry.counter(OutboxDispatcher.FAILURES).count());
+
+        sinkDown = false;
+        dispatcher.dispatch();
+
+        assertEquals(1, delivered.size());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatchShouldDeadLetterEventAfterMaxAttemptsAndDeliverTheRest() {
+        for (long bookingId = 1; bookingId <= 3; bookingId++) {
+            outboxRepository.save(event(bookingId));
+        }
+        poisonBookingId = 2L;
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxRepository, sink, meterRegistry, 10, 2);
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+
+        assertEquals(List.of(1L, 3L), delivered.stream()
+                .map(BookingNotification::getBookingId)
+                .collect(Collectors.toList()));
+        List<OutboxEvent> deadLetters = outboxRepository.findAll();
+        assertEquals(1, deadLetters.size());
+        assertEquals(2L, deadLetters.get(0).getBookingId());
+        assertEquals(2, deadLetters.get(0).getAttempts());
+        assertEquals(1.0, meterRegistry.counter(OutboxDispatcher.DEAD_LETTERS).count());
+    }
+
+    private OutboxEvent event(Long bookingId) {
+        return OutboxEvent.builder()
+                .bookingId(bookingId)
+                .itemId(1L)
+                .ownerId(2L)
+                .bookerId(3L)
+                .status(BookingStatus.WAITING)
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.cache;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "shareit.cache.enabled=false")
+@DirtiesContext
+class SecondLevelCacheDisabledTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void disabledCacheShouldTurnOffHibernateSecondLevelCache() {
+        assertFalse(entityManagerFactory.unwrap(SessionFactory.class)
+                .getSessionFactoryOptions()
+                .isSecondLevelCacheEnabled());
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Без тестовой транзакции: каждое чтение идёт в своей транзакции, чтобы проверялся именно
+ * кэш второго уровня, а не контекст персистентности.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class SecondLevelCacheTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        owner = userService.addUser(new UserDto(null, "owner", "owner@cache.ru"));
+    }
+
+    @Test
+    void updateUserShouldReplaceCachedUser() {
+        loadUser(owner.getId());
+        long hits = region(CacheRegions.USERS).getHitCount();
+        assertEquals("owner", loadUser(owner.getId()).getName());
+        assertEquals(hits + 1, region(CacheRegions.USERS).getHitCount());
+
+        userService.updateUser(new UserDto(owner.getId(), "renamed", null));
+
+        User user = loadUser(owner.getId());
+        assertEquals("renamed", user.getName());
+        assertEquals("owner@cache.ru", user.getEmail());
+    }
+
+    @Test
+    void updateItemShouldReplaceCachedItem() {
+        ItemDtoOut item = itemService.add(owner.getId(), new ItemDto("дрель", "ударная", true));
+        loadItem(item.getId());
+        long hits = region(CacheRegions.ITEMS).getHitCount();
+        assertEquals("дрель", loadItem(item.getId()).getName());
+        assertEquals(hits + 1, region(CacheRegions.ITEMS).getHitCount());
+
+        itemService.update(owner.getId(), item.getId(), ItemDto.builder().name("перфоратор").available(false).build());
+
+        Item cached = loadItem(item.getId());
+        assertEquals("перфоратор", cached.getName());
+        assertEquals("ударная", cached.getDescription());
+        assertEquals(false, cached.getAvailable());
+    }
+
+    @Test
+    void addItemForRequestShouldEvictCachedRequestItems() {
+        UserDto requester = userService.addUser(new UserDto(null, "requester", "requester@cache.ru"));
+        ItemRequestDtoOut request = itemRequestService.add(requester.getId(), new ItemRequestDto("нужна дрель"));
+        assertTrue(loadRequestItems(request.getId()).isEmpty());
+        assertEquals(1, region(CacheRegions.REQUEST_ITEMS).getPutCount());
+
+        ItemDtoOut item = itemService.add(owner.getId(),
+                new ItemDto("дрель", "ударная", true, request.getId()));
+
+        assertEquals(List.of(item.getId()), loadRequestItems(request.getId()));
+    }
+
+    private User loadUser(Long id) {
+        return readOnly.execute(status -> userRepository.findById(id).orElseThrow());
+    }
+
+    private Item loadItem(Long id) {
+        return readOnly.execute(status -> itemRepository.findById(id).orElseThrow());
+    }
+
+    private List<Long> loadRequestItems(Long requestId) {
+        return readOnly.execute(status -> {
+            ItemRequest request = itemRequestRepository.findById(requestId).orElseThrow();
+            return request.getItems().stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getDomainDataRegionStatistics(name);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.item.ItemController.USER_HEADER;
+
+/**
+ * Маршрутизация через JpaTransactionManager и Hibernate, как в приложении: основная база и реплика -
+ * две разные H2 в памяти. Реплика не получает схему от spring.sql.init, поэтому схема создаётся тестом.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.username=test",
+        "shareit.datasource.replica.password=test"
+})
+@DirtiesContext
+class ReplicaRoutingJpaTest {
+    private static final DataSource REPLICA = new DriverManagerDataSource(
+            "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "test", "test");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RequestUserFilter requestUserFilter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate replica = new JdbcTemplate(REPLICA);
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(REPLICA);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestUserHolder.clear();
+        replica.update("DELETE FROM users");
+        inTransaction(false, () -> {
+            userRepository.deleteAll();
+            return null;
+        });
+    }
+
+    @Test
+    void readOnlyJpaTransactionShouldReadReplica() {
+        inTransaction(false, () -> userRepository.save(User.builder().name("primary").email("node@email.com").build()));
+        replica.update("INSERT INTO users (name, email) VALUES ('replica', 'node@email.com')");
+        RequestUserHolder.set(1L);
+
+        assertEquals(List.of("replica"), inTransaction(true, this::names));
+        assertEquals(List.of("primary"), inTransaction(false, this::names));
+        assertEquals(List.of("primary"), RequestUserHolder.onPrimary(() -> inTransaction(true, this::names)));
+    }
+
+    @Test
+    void missingUserReadFromReplicaShouldNotBeCached() {
+        User user = inTransaction(false, () -> userRepository.save(User.builder().name("new").email("new@email.com").build()));
+        entityManagerFactory.getCache().evictAll();
+        RequestUserHolder.set(2L);
+
+        assertThrows(NotFoundException.class, () -> userService.getUser(user.getId()));
+
+        replica.update("INSERT INTO users (id, name, email) VALUES (?, 'new', 'new@email.com')", user.getId());
+        assertEquals("new", userService.getUser(user.getId()).getName());
+    }
+
+    @Test
+    void requestWithoutUserHeaderShouldBePinnedToPrimary() throws Exception {
+        boolean[] pinned = new boolean[2];
+
+        requestUserFilter.doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(),
+                (request, response) -> pinned[0] = RequestUserHolder.isPinnedToPrimary());
+        MockHttpServletRequest withUser = new MockHttpServletRequest("GET", "/items");
+        withUser.addHeader(USER_HEADER, "1");
+        requestUserFilter.doFilter(withUser, new MockHttpServletResponse(),
+                (request, response) -> pinned[1] = RequestUserHolder.isPinnedToPrimary());
+
+        assertTrue(pinned[0]);
+        assertFalse(pinned[1]);
+    }
+
+    private List<String> names() {
+        return userRepository.findAll().stream()
+                .map(User::getName)
+                .collect(Collectors.toList());
+    }
+
+    private <T> T inTransaction(boolean readOnly, Supplier<T> action) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoutingDataSourceTest {
+
+    private final DataSource primary = h2("primary");
+
+    private final DataSource replica = h2("replica");
+
+    private final DataSource dataSource = new LazyConnectionDataSourceProxy(
+            new RoutingDataSource(primary, replica, new ReadYourWritesTracker(Duration.ofMinutes(1L))));
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(primary).execute("CREATE TABLE node (name VARCHAR(16)); INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE node (name VARCHAR(16)); INSERT INTO node VALUES ('replica')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestUserHolder.clear();
+        new JdbcTemplate(primary).execute("DROP TABLE node");
+        new JdbcTemplate(replica).execute("DROP TABLE node");
+    }
+
+    @Test
+    void readOnlyTransactionShouldGoToReplica() {
+        RequestUserHolder.set(1L);
+
+        assertEquals("replica", node(true));
+        assertEquals("primary", node(false));
+    }
+
+    @Test
+    void readAfterWriteShouldGoToPrimaryForSameUserOnly() {
+        RequestUserHolder.set(1L);
+        assertEquals("primary", node(false));
+
+        assertEquals("primary", node(true));
+
+        RequestUserHolder.set(2L);
+        assertEquals("replica", node(true));
+    }
+
+    private String node(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
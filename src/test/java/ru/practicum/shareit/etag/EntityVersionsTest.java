@@ -0,0 +1,64 @@
+package ru.practicum.shareit.etag;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class EntityVersionsTest {
+
+    private final EntityVersions entityVersions = new EntityVersions();
+
+    @Test
+    void itemTagShouldChangeOnlyForChangedItem() {
+        String first = entityVersions.itemTag(1L, 1L);
+        String second = entityVersions.itemTag(1L, 2L);
+
+        entityVersions.itemChanged(1L);
+
+        assertNotEquals(first, entityVersions.itemTag(1L, 1L));
+        assertEquals(second, entityVersions.itemTag(1L, 2L));
+    }
+
+    @Test
+    void itemChangeShouldInvalidateBookingsButNotRequests() {
+        String booking = entityVersions.bookingTag(1L, 1L);
+        String request = entityVersions.requestTag(1L, 1L);
+
+        entityVersions.itemChanged(5L);
+
+        assertNotEquals(booking, entityVersions.bookingTag(1L, 1L));
+        assertEquals(request, entityVersions.requestTag(1L, 1L));
+    }
+
+    @Test
+    void userChangeShouldInvalidateItemsAndBookings() {
+        String item = entityVersions.itemTag(1L, 1L);
+        String booking = entityVersions.bookingTag(1L, 1L);
+
+        entityVersions.userChanged();
+
+        assertNotEquals(item, entityVersions.itemTag(1L, 1L));
+        assertNotEquals(booking, entityVersions.bookingTag(1L, 1L));
+    }
+
+    @Test
+    void itemCardVersionShouldAdvanceWithItemTag() {
+        String card = entityVersions.itemCardVersion(1L);
+
+        entityVersions.itemChanged(2L);
+        assertEquals(card, entityVersions.itemCardVersion(1L));
+
+        entityVersions.itemChanged(1L);
+        String changed = entityVersions.itemCardVersion(1L);
+        assertNotEquals(card, changed);
+
+        entityVersions.userChanged();
+        assertNotEquals(changed, entityVersions.itemCardVersion(1L));
+    }
+
+    @Test
+    void tagsShouldDependOnUser() {
+        assertNotEquals(entityVersions.itemTag(1L, 1L), entityVersions.itemTag(2L, 1L));
+    }
+}
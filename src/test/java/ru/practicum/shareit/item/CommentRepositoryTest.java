@@ -6,14 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -24,6 +27,9 @@ class CommentRepositoryTest {
     @Autowired
     CommentRepository commentRepository;
 
+    @Autowired
+    ItemRepository itemRepository;
+
     @Autowired
     private TestEntityManager testEntityManager;
 
@@ -66,4 +72,39 @@ class CommentRepositoryTest {
         assertEquals(comments.size(), 1);
         assertEquals(comments.get(0).getText(), "comment");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByItemIdBeforeShouldPageNewestFirst() {
+        commentRepository.save(Comment.builder().item(item).author(user).text("second").build());
+        commentRepository.save(Comment.builder().item(item).author(user).text("third").build());
+        testEntityManager.clear();
+
+        List<Comment> first = commentRepository.findAllByItemIdBefore(item.getId(),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE, PageRequest.of(0, 2));
+        Comment last = first.get(1);
+        List<Comment> second = commentRepository.findAllByItemIdBefore(item.getId(),
+                last.getCreated(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of("third", "second"), first.stream().map(Comment::getText).collect(Collectors.toList()));
+        assertEquals(List.of("comment"), second.stream().map(Comment::getText).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findLatestIdsByItemIdInShouldLimitEachItem() {
+        commentRepository.save(Comment.builder().item(item).author(user).text("second").build());
+
+        List<Long> ids = commentRepository.findLatestIdsByItemIdIn(List.of(item.getId()), 1);
+
+        assertEquals(1, ids.size());
+        assertEquals("second", commentRepository.findAllWithAuthorByIdIn(ids).get(0).getText());
+    }
+
+    @Test
+    void incrementCommentCountShouldUpdateItem() {
+        itemRepository.incrementCommentCount(item.getId());
+        itemRepository.incrementCommentCount(item.getId());
+        testEntityManager.clear();
+
+        assertEquals(2, itemRepository.findById(item.getId()).orElseThrow().getCommentCount());
+    }
+}
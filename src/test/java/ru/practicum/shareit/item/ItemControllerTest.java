@@ -6,10 +6,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.async.ListingExecutor;
+import ru.practicum.shareit.datasource.RequestUserHolder;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -17,15 +26,20 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import({ListingExecutor.class, EntityVersions.class})
 class ItemControllerTest {
 
     @Autowired
@@ -152,6 +166,63 @@ class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(itemDtoToCreate), result);
     }
 
+    @Test
+    @SneakyThrows
+    void getWhenEtagMatchesShouldReturnNotModifiedWithoutLoadingItem() {
+        Long itemId = 1L;
+        Long userId = 0L;
+        ItemDtoOut itemDtoOut = ItemDtoOut.builder()
+                .id(itemId)
+                .name("item name")
+                .description("description")
+                .available(true)
+                .build();
+        when(itemService.findItemById(userId, itemId)).thenReturn(itemDtoOut);
+
+        String etag = mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, userId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, 2L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        verify(itemService, times(1)).findItemById(userId, itemId);
+    }
+
+    @Test
+    @SneakyThrows
+    void getWithAnyEtagShouldLoadItemOnPrimaryBeforeNotModified() {
+        Long itemId = 1L;
+        Long userId = 0L;
+        boolean[] pinned = new boolean[1];
+        when(itemService.findItemById(userId, itemId)).thenAnswer(invocation -> {
+            pinned[0] = RequestUserHolder.isPinnedToPrimary();
+            return ItemDtoOut.builder().id(itemId).build();
+        });
+        when(itemService.findItemById(userId, 2L)).thenThrow(new NotFoundException("Предмет не найден"));
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/items/{itemId}", 2L)
+                        .header(USER_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+
+        assertTrue(pinned[0]);
+    }
+
     @Test
     @SneakyThrows
     void getAllShouldReturnStatusOk() {
@@ -166,8 +237,12 @@ class ItemControllerTest {
 
         when(itemService.findAll(userId, from, size)).thenReturn(itemsDtoToExpect);
 
-        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items", from, size)
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/items", from, size)
                         .header(USER_HEADER, userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -203,6 +278,36 @@ class ItemControllerTest {
     }
 
 
+    @Test
+    @SneakyThrows
+    void searchItemsWithDateRangeShouldSearchOnlyFreeItems() {
+        Long userId = 0L;
+        String text = "drill";
+        LocalDateTime start = LocalDateTime.of(2030, 1, 5, 10, 0);
+        LocalDateTime end = start.plusDays(2L);
+        List<ItemDtoOut> itemsDtoToExpect = List.of(ItemDtoOut.builder()
+                .id(1L)
+                .name("drill")
+                .description("free drill")
+                .available(true)
+                .build());
+
+        when(itemService.searchAvailable(userId, text, start, end, 0, 10)).thenReturn(itemsDtoToExpect);
+
+        String result = mockMvc.perform(get("/items/search")
+                        .header(USER_HEADER, userId)
+                        .param("text", text)
+                        .param("start", start.toString())
+                        .param("end", end.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(itemsDtoToExpect), result);
+        verify(itemService, never()).search(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
     @Test
     @SneakyThrows
     void createCommentWhenCommentIsValidShouldReturnStatusIsOk() {
@@ -229,6 +334,70 @@ class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(commentDtoOut), result);
     }
 
+    @Test
+    @SneakyThrows
+    void findCommentsShouldReturnPageAndNextCursor() {
+        Long itemId = 1L;
+        List<CommentDtoOut> comments = List.of(CommentDtoOut.builder()
+                .id(2L)
+                .itemId(itemId)
+                .text("some comment")
+                .build());
+        when(itemService.findComments(itemId, "cursor", 1)).thenReturn(new CommentPageDto(comments, "next"));
+
+        String result = mockMvc.perform(get("/items/{itemId}/comments", itemId)
+                        .param("cursor", "cursor")
+                        .param("size", "1")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(comments), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void findCommentsWhenSizeTooLargeShouldReturnBadRequest() {
+        mockMvc.perform(get("/items/{itemId}/comments", 1L)
+                        .param("size", "1000")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).findComments(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void getAvailabilityShouldReturnStatusOk() {
+        Long userId = 0L;
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(2L);
+        ItemAvailabilityDto availabilityDto = ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .available(true)
+                .bookings(List.of())
+                .build();
+
+        when(itemService.getAvailability(userId, itemId, from, to)).thenReturn(availabilityDto);
+
+        String result = mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header(USER_HEADER, userId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(availabilityDto), result);
+    }
+
     @Test
     @SneakyThrows
     void findAllItemsShouldReturnBadRequest() {
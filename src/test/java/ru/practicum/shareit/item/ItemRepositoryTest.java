@@ -58,4 +58,18 @@ class ItemRepositoryTest {
         assertEquals(items.size(), 1);
         assertEquals(items.get(0).getName(), "name");
     }
+
+    @Test
+    void updateAfterCommentCountIncrementShouldKeepCommentCount() {
+        Item loaded = itemRepository.findById(item.getId()).orElseThrow();
+        itemRepository.incrementCommentCount(item.getId());
+
+        loaded.setName("changed");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("changed", updated.getName());
+        assertEquals(1, updated.getCommentCount());
+    }
 }
\ No newline at end of file
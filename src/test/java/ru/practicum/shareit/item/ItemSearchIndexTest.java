@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.index.ItemSearchIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex index;
+
+    private final Item drill = item(1L, "Дрель", "Простая дрель", true);
+    private final Item saw = item(2L, "Пила", "Пила по дереву", true);
+    private final Item screwdriver = item(3L, "Отвёртка", "Аккумуляторная дрель-шуруповёрт", true);
+
+    @BeforeEach
+    void init() {
+        when(itemRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L, 5L));
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(drill, saw, screwdriver));
+        index = new ItemSearchIndex(itemRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    void searchShouldMatchSubstringIgnoringCase() {
+        assertEquals(List.of(1L, 3L), ids(index.search("ДРЕль", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("ере", 0, 10)));
+        assertEquals(List.of(1L, 2L, 3L), ids(index.search("р", 0, 10)));
+        assertTrue(index.search("молоток", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchShouldPaginateLikeRepository() {
+        assertEquals(List.of(3L), ids(index.search("дрель", 1, 1)));
+        assertEquals(List.of(1L, 3L), ids(index.search("дрель", 1, 2)));
+    }
+
+    @Test
+    void searchShouldFilterBeforePaginating() {
+        assertEquals(List.of(3L), ids(index.search("дрель", 0, 1, itemId -> itemId != 1L)));
+        assertTrue(index.search("дрель", 1, 1, itemId -> itemId != 1L).isEmpty());
+    }
+
+    @Test
+    void indexShouldApplyUpdatesAndAvailability() {
+        drill.setName("Перфоратор");
+        drill.setDescription("Мощный перфоратор");
+        index.index(drill);
+        saw.setAvailable(false);
+        index.index(saw);
+        index.index(item(4L, "Дрель ударная", "Новая", true));
+
+        assertEquals(List.of(3L, 4L), ids(index.search("дрель", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("перфо", 0, 10)));
+        assertTrue(index.search("пила", 0, 10).isEmpty());
+    }
+
+    @Test
+    void containsShouldKnowUnavailableAndNewItems() {
+        index.index(item(4L, "Дрель ударная", "Новая", false));
+
+        assertTrue(index.contains(4L));
+        assertTrue(index.contains(5L));
+        assertFalse(index.contains(6L));
+    }
+
+    private List<Long> ids(List<ItemDtoOut> items) {
+        return items.stream()
+                .map(ItemDtoOut::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Item item(Long id, String name, String description, Boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
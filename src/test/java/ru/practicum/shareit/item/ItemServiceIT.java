@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -127,4 +128,15 @@ public class ItemServiceIT {
                 .assertThrows(RuntimeException.class,
                         () -> itemService.findItemById(userDto1.getId(), itemId));
     }
+
+    @Test
+    void getAvailabilityWhenItemIdIsNotValid() {
+        UserDto addedUser = userService.addUser(userDto1);
+        Long missingItemId = itemService.add(addedUser.getId(), itemDto1).getId() + 1;
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        Assertions
+                .assertThrows(NotFoundException.class,
+                        () -> itemService.getAvailability(addedUser.getId(), missingItemId, from, from.plusDays(1)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.DispatcherType;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.item.ItemController.USER_HEADER;
+
+class RateLimitInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void init() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("shareit.rate-limit.groups.search.paths", "/items/search")
+                .withProperty("shareit.rate-limit.groups.search.capacity", "2")
+                .withProperty("shareit.rate-limit.groups.search.refill-per-second", "0.5")
+                .withProperty("shareit.rate-limit.groups.default.paths", "/**")
+                .withProperty("shareit.rate-limit.groups.default.capacity", "100")
+                .withProperty("shareit.rate-limit.groups.default.refill-per-second", "100");
+        interceptor = new RateLimitInterceptor(true, Duration.ofMinutes(10), 1000, environment, new ObjectMapper());
+        interceptor.bindTo(meterRegistry);
+    }
+
+    @Test
+    @SneakyThrows
+    void preHandleShouldThrottleUserAfterBurstWithRetryAfter() {
+        assertTrue(interceptor.preHandle(request("/items/search", 1L), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(request("/items/search", 1L), new MockHttpServletResponse(), null));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("/items/search", 1L), response, null));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get(RateLimitInterceptor.THROTTLED).tag("group", "search").functionCounter().count());
+    }
+
+    @Test
+    @SneakyThrows
+    void preHandleShouldKeepSeparateBudgetsPerUserAndGroup() {
+        for (int i = 0; i < 2; i++) {
+            interceptor.preHandle(request("/items/search", 1L), new MockHttpServletResponse(), null);
+        }
+
+        assertTrue(interceptor.preHandle(request("/items/search", 2L), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(request("/items/1", 1L), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(request("/items/search", null), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    @SneakyThrows
+    void preHandleShouldNotCountAsyncDispatch() {
+        for (int i = 0; i < 2; i++) {
+            interceptor.preHandle(request("/items/search", 1L), new MockHttpServletResponse(), null);
+        }
+        MockHttpServletRequest asyncDispatch = request("/items/search", 1L);
+        asyncDispatch.setDispatcherType(DispatcherType.ASYNC);
+
+        assertTrue(interceptor.preHandle(asyncDispatch, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void tokenBucketShouldRefillOverTime() {
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertEquals(0, bucket.tryAcquire(0, interval, interval));
+        assertEquals(0, bucket.tryAcquire(0, interval, interval));
+        assertEquals(interval, bucket.tryAcquire(0, interval, interval));
+        assertEquals(0, bucket.tryAcquire(interval, interval, interval));
+    }
+
+    private MockHttpServletRequest request(String path, Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (userId != null) {
+            request.addHeader(USER_HEADER, userId);
+        }
+        return request;
+    }
+}
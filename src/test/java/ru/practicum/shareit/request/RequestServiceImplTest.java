@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -21,8 +22,11 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +38,9 @@ class RequestServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @InjectMocks
     private ItemRequestServiceImpl requestService;
 
@@ -77,9 +84,11 @@ class RequestServiceImplTest {
 
     @Test
     void getUserRequests() {
+        item.setRequest(request);
         List<ItemRequestDtoOut> expectedRequestsDto = List.of(ItemRequestMapper.toRequestDtoOut(request));
         when(userService.getUser(user.getId())).thenReturn(userDto);
         when(requestRepository.findAllByRequesterId(userDto.getId())).thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(item));
 
         List<ItemRequestDtoOut> actualRequestsDto = requestService.getUserRequests(userDto.getId());
 
@@ -88,16 +97,39 @@ class RequestServiceImplTest {
 
     @Test
     void getAllRequests() {
+        item.setRequest(request);
         List<ItemRequestDtoOut> expectedRequestsDto = List.of(ItemRequestMapper.toRequestDtoOut(request));
         when(userService.getUser(user.getId())).thenReturn(userDto);
         when(requestRepository.findAllByRequester_IdNotOrderByCreatedDesc(anyLong(), any(PageRequest.class)))
                 .thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(item));
 
         List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 0, 10);
 
         assertEquals(expectedRequestsDto, actualRequestsDto);
     }
 
+    @Test
+    void getAllRequestsShouldLoadItemsForWholePageAtOnce() {
+        ItemRequest emptyRequest = ItemRequest.builder()
+                .id(2L)
+                .description("request without items")
+                .build();
+        item.setRequest(request);
+        when(userService.getUser(user.getId())).thenReturn(userDto);
+        when(requestRepository.findAllByRequester_IdNotOrderByCreatedDesc(anyLong(), any(PageRequest.class)))
+                .thenReturn(List.of(request, emptyRequest));
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId(), emptyRequest.getId())))
+                .thenReturn(List.of(item));
+
+        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 0, 10);
+
+        assertEquals(1, actualRequestsDto.get(0).getItems().size());
+        assertEquals(item.getId(), actualRequestsDto.get(0).getItems().get(0).getId());
+        assertEquals(List.of(), actualRequestsDto.get(1).getItems());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(anyList());
+    }
+
     @Test
     void getRequestById() {
         ItemRequestDtoOut expectedRequestDto = ItemRequestMapper.toRequestDtoOut(request);
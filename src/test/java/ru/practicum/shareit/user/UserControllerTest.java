@@ -7,16 +7,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.user.service.UserImportService;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -32,6 +43,43 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImportService userImportService;
+
+    @Test
+    @SneakyThrows
+    void importUsersShouldStreamResultsForCsvBody() {
+        doAnswer(invocation -> {
+            InputStream body = invocation.getArgument(1);
+            OutputStream outputStream = invocation.getArgument(2);
+            assertEquals("name,email\nname,email@email.com\n", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            outputStream.write("{\"line\":2,\"status\":\"CREATED\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userImportService).importUsers(eq(UserImportFormat.CSV), any(InputStream.class), any(OutputStream.class));
+
+        MvcResult mvcResult = mockMvc.perform(post("/users/import")
+                        .contentType("text/csv;charset=UTF-8")
+                        .content("name,email\nname,email@email.com\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andExpect(content().string("{\"line\":2,\"status\":\"CREATED\"}\n"));
+    }
+
+    @Test
+    @SneakyThrows
+    void importUsersWhenBodyIsJsonArrayShouldReturnUnsupportedMediaType() {
+        mockMvc.perform(post("/users/import")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(userImportService);
+    }
+
     @Test
     @SneakyThrows
     void createUserWhenUserIsValid() {
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.user.UserImportResultDto.Status;
+import ru.practicum.shareit.user.cache.KnownEmails;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserImportService;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class UserImportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserCache userCache = new UserCache(100L, Duration.ofMinutes(5L));
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(new NamedParameterJdbcTemplate(jdbcTemplate), transactionManager,
+                new KnownEmails(jdbcTemplate, 1_000, 0.01), userCache, new EntityVersions(), objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), 2);
+    }
+
+    @Test
+    void importNdjsonShouldCreateNewUsersAndReportTheRest() throws Exception {
+        userRepository.save(User.builder().name("old").email("old@email.com").build());
+
+        List<UserImportResultDto> results = importUsers(UserImportFormat.NDJSON,
+                "{\"name\":\"first\",\"email\":\"first@email.com\"}\n" +
+                        "{\"name\":\"old again\",\"email\":\"old@email.com\"}\n" +
+                        "\n" +
+                        "{\"name\":\"no email\"}\n" +
+                        "{\"name\":\"first again\",\"email\":\"first@email.com\"}\n" +
+                        "not json\n" +
+                        "{\"name\":\"second\",\"email\":\"second@email.com\"}\n");
+
+        assertEquals(List.of(1, 2, 4, 5, 6, 7), lines(results));
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.INVALID, Status.DUPLICATE,
+                Status.INVALID, Status.CREATED), statuses(results));
+        assertTrue(results.get(2).getError().startsWith("email: "));
+        assertNull(results.get(4).getUser());
+        assertEquals(3, userRepository.count());
+        assertEquals(Optional.of("second"), userRepository.findById(results.get(5).getUser().getId()).map(User::getName));
+    }
+
+    @Test
+    void importCsvShouldFindColumnsByHeaderAndUnquoteFields() throws Exception {
+        List<UserImportResultDto> results = importUsers(UserImportFormat.CSV,
+                "email,name\n" +
+                        "ivan@email.com,\"Иван, младший\"\n" +
+                        "\"anna@email.com\",\"Анна \"\"Первая\"\"\"\n" +
+                        "broken@email.com,\"unclosed\n");
+
+        assertEquals(List.of(Status.CREATED, Status.CREATED, Status.INVALID), statuses(results));
+        assertEquals("Иван, младший", results.get(0).getUser().getName());
+        assertEquals("Анна \"Первая\"", results.get(1).getUser().getName());
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void importCsvWithoutHeaderShouldRejectFile() throws Exception {
+        List<UserImportResultDto> results = importUsers(UserImportFormat.CSV, "ivan@email.com,Иван\n");
+
+        assertEquals(List.of(Status.INVALID), statuses(results));
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void importShouldReportUsersAddedAfterFilterWasLoadedAsDuplicates() throws Exception {
+        importUsers(UserImportFormat.NDJSON, "{\"name\":\"first\",\"email\":\"first@email.com\"}\n");
+        User added = userRepository.save(User.builder().name("late").email("late@email.com").build());
+        userCache.get(added.getId() + 1, id -> Optional.empty());
+
+        List<UserImportResultDto> results = importUsers(UserImportFormat.NDJSON,
+                "{\"name\":\"first\",\"email\":\"first@email.com\"}\n" +
+                        "{\"name\":\"late\",\"email\":\"late@email.com\"}\n" +
+                        "{\"name\":\"new\",\"email\":\"new@email.com\"}\n");
+
+        assertEquals(List.of(Status.DUPLICATE, Status.DUPLICATE, Status.CREATED), statuses(results));
+        Long createdId = results.get(2).getUser().getId();
+        assertNotNull(createdId);
+        assertEquals(added.getId() + 1, createdId);
+        assertEquals("new@email.com", userCache.get(createdId, id -> userRepository.findById(id)
+                .map(UserMapper::toUserDto)).orElseThrow().getEmail());
+    }
+
+    private List<UserImportResultDto> importUsers(UserImportFormat format, String body) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        userImportService.importUsers(format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), outputStream);
+        List<UserImportResultDto> results = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, UserImportResultDto.class));
+        }
+        return results;
+    }
+
+    private static List<Integer> lines(List<UserImportResultDto> results) {
+        List<Integer> lines = new ArrayList<>();
+        results.forEach(result -> lines.add(result.getLine()));
+        return lines;
+    }
+
+    private static List<Status> statuses(List<UserImportResultDto> results) {
+        List<Status> statuses = new ArrayList<>();
+        results.forEach(result -> statuses.add(result.getStatus()));
+        return statuses;
+    }
+}
@@ -4,11 +4,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -23,6 +27,12 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserCache userCache = new UserCache(100L, Duration.ofMinutes(5L));
+
+    @Mock
+    private EntityVersions entityVersions;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -70,8 +80,6 @@ class UserServiceImplTest {
     void findUserByIdWhenUserFound() {
         long userId = 1L;
         User expectedUser = User.builder().id(1L).name("name").email("my@email.com").build();
-        when(userRepository.existsById(expectedUser.getId()))
-                .thenReturn(true);
         when(userRepository.findById(expectedUser.getId()))
                 .thenReturn(Optional.of(expectedUser));
         //  when(userService.getUser(expectedUser.getId()))
@@ -88,6 +96,26 @@ class UserServiceImplTest {
         assertThrows(NotFoundException.class, () -> userService.getUser(100L));
     }
 
+    @Test
+    void getUserShouldBeServedFromCacheUntilInvalidated() {
+        User expectedUser = User.builder().id(1L).name("name").email("my@email.com").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(expectedUser));
+
+        assertEquals(userDto, userService.getUser(1L));
+        userService.getUser(1L).setName("changed");
+        assertEquals(userDto, userService.getUser(1L));
+        verify(userRepository, times(1)).findById(1L);
+
+        assertThrows(NotFoundException.class, () -> userService.getUser(100L));
+        assertThrows(NotFoundException.class, () -> userService.getUser(100L));
+        verify(userRepository, times(1)).findById(100L);
+
+        userService.delete(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> userService.getUser(1L));
+        assertEquals(3L, userCache.stats().missCount());
+    }
+
     @Test
     void findAllUsersTest() {
         List<User> expectedUsers = List.of(new User());